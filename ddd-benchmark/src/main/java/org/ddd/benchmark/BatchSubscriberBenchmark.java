@@ -0,0 +1,102 @@
+package org.ddd.benchmark;
+
+import org.ddd.domain.event.RocketMqBatchDomainEventSubscriber;
+import org.ddd.domain.event.RocketMqDomainEventSubscriber;
+import org.ddd.domain.event.RocketMqDomainEventSubscriberManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量消费：逐条交付订阅者 vs 整批交付批量订阅者
+ * 订阅者模拟每次调用一次固定开销（如一次数据库往返）
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchSubscriberBenchmark {
+    /**
+     * 每次调用的模拟开销（微秒）
+     */
+    private static final long CALL_COST_MICROS = 20;
+
+    @Param({"32"})
+    private int batchSize;
+
+    private RocketMqDomainEventSubscriberManager singleManager;
+    private RocketMqDomainEventSubscriberManager batchManager;
+    private List<BenchmarkEvent> events;
+
+    @Setup
+    public void setup() {
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.refresh();
+        singleManager = new RocketMqDomainEventSubscriberManager(
+                Collections.singletonList(new SingleSubscriber()), applicationContext);
+        JpaBenchmarkSupport.setField(singleManager, "skipUnlistenedSpringEvent", true);
+        singleManager.onContextRefreshed(new ContextRefreshedEvent(applicationContext));
+        batchManager = new RocketMqDomainEventSubscriberManager(
+                Collections.singletonList(new BatchSubscriber()), applicationContext);
+        JpaBenchmarkSupport.setField(batchManager, "skipUnlistenedSpringEvent", true);
+        batchManager.onContextRefreshed(new ContextRefreshedEvent(applicationContext));
+
+        events = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            events.add(BenchmarkEvent.of("order-" + i, 1));
+        }
+    }
+
+    @Benchmark
+    public void single() {
+        for (BenchmarkEvent event : events) {
+            singleManager.trigger(event);
+        }
+    }
+
+    @Benchmark
+    public void batch() {
+        batchManager.triggerAll(BenchmarkEvent.class, events);
+    }
+
+    private static void call() {
+        long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(CALL_COST_MICROS);
+        while (System.nanoTime() < deadline) {
+            // busy wait
+        }
+    }
+
+    private static class SingleSubscriber extends RocketMqDomainEventSubscriber<BenchmarkEvent> {
+        @Override
+        public Class<BenchmarkEvent> forDomainEventClass() {
+            return BenchmarkEvent.class;
+        }
+
+        @Override
+        public void onEvent(BenchmarkEvent event) {
+            call();
+        }
+    }
+
+    private static class BatchSubscriber extends RocketMqBatchDomainEventSubscriber<BenchmarkEvent> {
+        @Override
+        public Class<BenchmarkEvent> forDomainEventClass() {
+            return BenchmarkEvent.class;
+        }
+
+        @Override
+        public void onEvents(List<BenchmarkEvent> events) {
+            call();
+        }
+    }
+}
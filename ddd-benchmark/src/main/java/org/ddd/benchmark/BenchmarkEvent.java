@@ -0,0 +1,40 @@
+package org.ddd.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.ddd.domain.event.annotation.DomainEvent;
+import org.ddd.share.annotation.Retry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试领域事件
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@DomainEvent(value = "${benchmark.event.topic:benchmark-event}:paid", persist = true)
+@Retry(retryTimes = 3, retryIntervals = {1, 5, 10})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchmarkEvent {
+    private String orderNo;
+    private Integer amount;
+    private List<String> items;
+
+    /**
+     * @param orderNo
+     * @param itemCount 明细条数，控制事件体大小
+     * @return
+     */
+    public static BenchmarkEvent of(String orderNo, int itemCount) {
+        List<String> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add("item-" + i + "-" + orderNo);
+        }
+        return new BenchmarkEvent(orderNo, itemCount * 100, items);
+    }
+}
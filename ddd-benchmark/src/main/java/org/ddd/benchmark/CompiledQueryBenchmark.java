@@ -0,0 +1,81 @@
+package org.ddd.benchmark;
+
+import org.ddd.benchmark.entity.IdentityOrder;
+import org.ddd.domain.repo.JpaCompiledQuery;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条件查询：预编译查询（缓存JPQL）vs 每次构建Criteria
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledQueryBenchmark {
+    private static final int ROWS = 100;
+
+    private JpaBenchmarkSupport support;
+    private EntityManager entityManager;
+    private JpaCompiledQuery<IdentityOrder, IdentityOrder> compiledQuery;
+    private int seq = 0;
+
+    @Setup
+    public void setup() {
+        support = new JpaBenchmarkSupport(null, JpaBenchmarkSupport.ENTITY_PACKAGE);
+        entityManager = support.getEntityManagerFactory().createEntityManager();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(new IdentityOrder("order-" + i, i));
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        compiledQuery = new JpaCompiledQuery<>("IdentityOrder.byOrderNo", IdentityOrder.class, IdentityOrder.class,
+                (cb, cq, root) -> cq.where(
+                        cb.equal(root.get("orderNo"), cb.parameter(String.class, "orderNo")),
+                        cb.greaterThanOrEqualTo(root.get("amount"), 0)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        support.close();
+    }
+
+    @Benchmark
+    public List<IdentityOrder> compiled() {
+        List<IdentityOrder> result = compiledQuery.createQuery(entityManager, Collections.singletonMap("orderNo", nextOrderNo()))
+                .getResultList();
+        entityManager.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<IdentityOrder> criteria() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<IdentityOrder> cq = cb.createQuery(IdentityOrder.class);
+        Root<IdentityOrder> root = cq.from(IdentityOrder.class);
+        cq.where(
+                cb.equal(root.get("orderNo"), nextOrderNo()),
+                cb.greaterThanOrEqualTo(root.get("amount"), 0));
+        List<IdentityOrder> result = entityManager.createQuery(cq).getResultList();
+        entityManager.clear();
+        return result;
+    }
+
+    private String nextOrderNo() {
+        return "order-" + (seq++ % ROWS);
+    }
+}
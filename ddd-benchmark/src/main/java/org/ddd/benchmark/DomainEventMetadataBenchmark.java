@@ -0,0 +1,51 @@
+package org.ddd.benchmark;
+
+import org.ddd.domain.event.DomainEventMetadata;
+import org.ddd.domain.event.annotation.DomainEvent;
+import org.ddd.share.annotation.Retry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件元数据：注册表查找 vs 每次读取注解并解析目标占位符
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainEventMetadataBenchmark {
+    private StandardEnvironment environment;
+    private Object payload;
+
+    @Setup
+    public void setup() {
+        environment = new StandardEnvironment();
+        DomainEventMetadata.configurePlaceholderResolver(environment::resolvePlaceholders);
+        payload = BenchmarkEvent.of("order-1", 1);
+    }
+
+    @Benchmark
+    public void metadata(Blackhole blackhole) {
+        DomainEventMetadata metadata = DomainEventMetadata.of(payload);
+        blackhole.consume(metadata.getDestination());
+        blackhole.consume(metadata.isPersist());
+        blackhole.consume(metadata.getRetryTimes());
+    }
+
+    @Benchmark
+    public void annotation(Blackhole blackhole) {
+        DomainEvent domainEvent = payload.getClass().getAnnotation(DomainEvent.class);
+        blackhole.consume(environment.resolvePlaceholders(domainEvent.value()));
+        blackhole.consume(domainEvent.persist());
+        Retry retry = payload.getClass().getAnnotation(Retry.class);
+        blackhole.consume(retry.retryTimes());
+    }
+}
@@ -0,0 +1,62 @@
+package org.ddd.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.ddd.domain.event.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集成事件发布：逐条异步发送 vs 同一目标批量发送
+ * 生产者为内存实现，度量发布端转换、分批及回写开销；网络往返节省可由InMemoryMQProducer.getRequests()对比请求数
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainEventPublisherBenchmark {
+    @Param({"false", "true"})
+    private boolean batchSendEnable;
+    @Param({"100"})
+    private int count;
+
+    private RocketMqDomainEventPublisher publisher;
+    private List<Object> events;
+
+    @Setup
+    public void setup() {
+        RocketMQTemplate rocketMQTemplate = new RocketMQTemplate();
+        rocketMQTemplate.setProducer(new InMemoryMQProducer());
+        rocketMQTemplate.setObjectMapper(new ObjectMapper());
+        RocketMqDomainEventSubscriberManager subscriberManager = new RocketMqDomainEventSubscriberManager(
+                Collections.emptyList(), new GenericApplicationContext());
+        publisher = new RocketMqDomainEventPublisher(subscriberManager, rocketMQTemplate, new NoopEventRecordRepository());
+        JpaBenchmarkSupport.setField(publisher, "batchSendEnable", batchSendEnable);
+
+        LocalDateTime now = LocalDateTime.now();
+        events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            EventRecord event = new EventRecordImpl();
+            event.init(BenchmarkEvent.of("order-" + i, 5), "benchmark", now, Duration.ofDays(1), 3);
+            events.add(event);
+        }
+    }
+
+    @Benchmark
+    public void publishAll() {
+        publisher.publishAll(events);
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.ddd.benchmark;
+
+import org.ddd.benchmark.entity.IdentityOrder;
+import org.ddd.domain.repo.JpaEntityIdentifierAccessor;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体ID读取：启动时生成的ID句柄 vs 每次反射查找getId
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityIdentifierAccessorBenchmark {
+    private JpaBenchmarkSupport support;
+    private EntityManager entityManager;
+    private JpaEntityIdentifierAccessor accessor;
+    private IdentityOrder entity;
+
+    @Setup
+    public void setup() {
+        support = new JpaBenchmarkSupport(null, JpaBenchmarkSupport.ENTITY_PACKAGE);
+        entityManager = support.getEntityManagerFactory().createEntityManager();
+        EntityManager accessorEntityManager = entityManager;
+        accessor = new JpaEntityIdentifierAccessor() {
+            {
+                this.entityManager = accessorEntityManager;
+            }
+        };
+        accessor.init();
+        entity = new IdentityOrder("order-1", 100);
+        entity.setId(1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        support.close();
+    }
+
+    @Benchmark
+    public Object accessor() {
+        return accessor.getIdentifier(entity);
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return entity.getClass().getMethod("getId").invoke(entity);
+    }
+}
@@ -0,0 +1,72 @@
+package org.ddd.benchmark;
+
+import org.ddd.application.distributed.SnowflakeIdGenerator;
+import org.ddd.domain.event.persistence.Event;
+import org.ddd.domain.event.persistence.EventIdentifierGenerator;
+import org.ddd.domain.repo.SnowflakeIdentifierGenerator;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.spi.IdentifierGeneratorStrategyProvider;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 持久化事件写入：事件表默认自增主键 vs 经主键策略映射为Snowflake后的批量写入
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventInsertBenchmark {
+    @Param({"identity", "snowflake"})
+    private String idStrategy;
+    @Param({"10", "1000"})
+    private int count;
+
+    private JpaBenchmarkSupport support;
+    private EntityManager entityManager;
+    private BenchmarkEvent payload;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = new HashMap<>();
+        if ("snowflake".equals(idStrategy)) {
+            SnowflakeIdentifierGenerator.configure(new SnowflakeIdGenerator(1));
+            IdentifierGeneratorStrategyProvider provider = () -> Collections.singletonMap(EventIdentifierGenerator.STRATEGY, SnowflakeIdentifierGenerator.class);
+            properties.put(AvailableSettings.IDENTIFIER_GENERATOR_STRATEGY_PROVIDER, provider);
+        }
+        support = new JpaBenchmarkSupport(properties, JpaBenchmarkSupport.EVENT_ENTITY_PACKAGE);
+        entityManager = support.getEntityManagerFactory().createEntityManager();
+        payload = BenchmarkEvent.of("order-1", 5);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        support.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < count; i++) {
+            Event event = Event.builder().build();
+            event.init(payload, "benchmark", now, Duration.ofDays(1), 3);
+            entityManager.persist(event);
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+    }
+}
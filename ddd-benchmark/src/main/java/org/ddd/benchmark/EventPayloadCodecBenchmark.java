@@ -0,0 +1,53 @@
+package org.ddd.benchmark;
+
+import org.ddd.domain.event.EventPayloadCodecs;
+import org.ddd.domain.event.JsonEventPayloadCodec;
+import org.ddd.domain.event.SmileEventPayloadCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件体编解码：json vs smile，及超过阈值gzip压缩
+ * 编码结果长度见EncodedPayload.getData()，可结合输出对比存储体积
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPayloadCodecBenchmark {
+    @Param({JsonEventPayloadCodec.ID, SmileEventPayloadCodec.ID})
+    private String codec;
+    /**
+     * 压缩阈值（字节），0不压缩
+     */
+    @Param({"0", "256"})
+    private int compressThreshold;
+    @Param({"5", "100"})
+    private int itemCount;
+
+    private BenchmarkEvent payload;
+    private EventPayloadCodecs.EncodedPayload encoded;
+
+    @Setup
+    public void setup() {
+        EventPayloadCodecs.configure(codec, compressThreshold);
+        payload = BenchmarkEvent.of("order-1", itemCount);
+        encoded = EventPayloadCodecs.encode(payload);
+    }
+
+    @Benchmark
+    public EventPayloadCodecs.EncodedPayload encode() {
+        return EventPayloadCodecs.encode(payload);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return EventPayloadCodecs.decode(encoded.getCodecId(), encoded.getData(), BenchmarkEvent.class.getName());
+    }
+}
@@ -0,0 +1,58 @@
+package org.ddd.benchmark;
+
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.Message;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存生产者
+ * 不连接broker，发送立即成功，仅统计请求次数；用于度量发布端自身开销及发送请求数
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class InMemoryMQProducer extends DefaultMQProducer {
+    private final AtomicLong requests = new AtomicLong();
+
+    public InMemoryMQProducer() {
+        super("benchmark");
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    @Override
+    public SendResult send(Message msg) {
+        requests.incrementAndGet();
+        return sendOk();
+    }
+
+    @Override
+    public SendResult send(Message msg, long timeout) {
+        return send(msg);
+    }
+
+    @Override
+    public void send(Message msg, SendCallback sendCallback, long timeout) {
+        requests.incrementAndGet();
+        sendCallback.onSuccess(sendOk());
+    }
+
+    @Override
+    public SendResult send(Collection<Message> msgs) {
+        requests.incrementAndGet();
+        return sendOk();
+    }
+
+    private static SendResult sendOk() {
+        SendResult sendResult = new SendResult();
+        sendResult.setSendStatus(SendStatus.SEND_OK);
+        return sendResult;
+    }
+}
@@ -0,0 +1,79 @@
+package org.ddd.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 基准测试支撑
+ * 基于H2内存库（MySQL兼容模式）构建与Spring Boot相同引导路径的EntityManagerFactory
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaBenchmarkSupport {
+    public static final String ENTITY_PACKAGE = "org.ddd.benchmark.entity";
+    public static final String EVENT_ENTITY_PACKAGE = "org.ddd.domain.event.persistence";
+
+    private final HikariDataSource dataSource;
+    private final LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    /**
+     * @param properties    Hibernate配置，覆盖默认值
+     * @param packagesToScan 实体包
+     */
+    public JpaBenchmarkSupport(Map<String, Object> properties, String... packagesToScan) {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(4);
+
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        jpaProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, 1000);
+        jpaProperties.put(AvailableSettings.ORDER_INSERTS, true);
+        jpaProperties.put(AvailableSettings.ORDER_UPDATES, true);
+        if (properties != null) {
+            jpaProperties.putAll(properties);
+        }
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        entityManagerFactoryBean.setPackagesToScan(packagesToScan);
+        entityManagerFactoryBean.setJpaPropertyMap(jpaProperties);
+        entityManagerFactoryBean.afterPropertiesSet();
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactoryBean.getObject();
+    }
+
+    public void close() {
+        entityManagerFactoryBean.destroy();
+        dataSource.close();
+    }
+
+    /**
+     * 设置非公开字段（替代@Value注入）
+     *
+     * @param target
+     * @param name
+     * @param value
+     */
+    public static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("字段不存在: " + target.getClass().getName() + "." + name);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,23 @@
+package org.ddd.benchmark;
+
+import org.ddd.domain.event.EventRecord;
+import org.ddd.domain.event.EventRecordImpl;
+import org.ddd.domain.event.EventRecordRepository;
+
+/**
+ * 空事件库
+ * 事件记录仅在内存中创建，保存为空操作，隔离事件库开销
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class NoopEventRecordRepository implements EventRecordRepository {
+    @Override
+    public EventRecord create() {
+        return new EventRecordImpl();
+    }
+
+    @Override
+    public void save(EventRecord event) {
+    }
+}
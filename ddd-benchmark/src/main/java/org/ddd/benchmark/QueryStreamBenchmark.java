@@ -0,0 +1,119 @@
+package org.ddd.benchmark;
+
+import org.ddd.benchmark.entity.SnowflakeOrder;
+import org.ddd.domain.repo.JpaUnitOfWork;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 大结果集读取的堆占用：一次性加载（queryList） vs 流式读取（queryStream） vs 游标分批读取（queryCursor）
+ * 每次操作读取全部行；读取过程中每SAMPLE_INTERVAL行触发GC并采样存活堆，liveHeapMb为相对读取前的存活堆峰值；
+ * 采样GC计入耗时，耗时仅供参考；辅助计数按迭代累加，故仅测量一次迭代
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class QueryStreamBenchmark {
+    @Param({"list", "stream", "cursor"})
+    private String mode;
+    @Param({"1000000"})
+    private int rows;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private JpaUnitOfWork unitOfWork;
+    private TransactionTemplate transactionTemplate;
+
+    private static final int SAMPLE_INTERVAL = 100000;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapUsage {
+        public long liveHeapMb;
+        private long baseline;
+        private long peak;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            liveHeapMb = 0;
+            baseline = liveHeap();
+            peak = baseline;
+        }
+
+        void sample() {
+            peak = Math.max(peak, liveHeap());
+            liveHeapMb = (peak - baseline) / 1024 / 1024;
+        }
+
+        private static long liveHeap() {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        applicationContext = UnitOfWorkBenchmarkConfiguration.create(Collections.emptyMap());
+        unitOfWork = applicationContext.getBean(JpaUnitOfWork.class);
+        transactionTemplate = new TransactionTemplate(applicationContext.getBean(PlatformTransactionManager.class));
+        new JdbcTemplate(applicationContext.getBean(DataSource.class)).update(
+                "insert into \"snowflake_order\"(\"id\", \"order_no\", \"amount\") select x, concat('order-', x), x from system_range(1, ?)", rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public long read(HeapUsage heapUsage) {
+        long[] count = new long[1];
+        transactionTemplate.execute(status -> {
+            switch (mode) {
+                case "list":
+                    List<SnowflakeOrder> orders = unitOfWork.queryList(SnowflakeOrder.class, SnowflakeOrder.class, (cb, cq, root) -> {
+                    });
+                    count[0] = orders.size();
+                    heapUsage.sample();
+                    break;
+                case "stream":
+                    try (Stream<SnowflakeOrder> orderStream = unitOfWork.queryStream(SnowflakeOrder.class, SnowflakeOrder.class, (cb, cq, root) -> {
+                    })) {
+                        orderStream.forEach(order -> {
+                            if (++count[0] % SAMPLE_INTERVAL == 0) {
+                                heapUsage.sample();
+                            }
+                        });
+                    }
+                    break;
+                case "cursor":
+                default:
+                    unitOfWork.queryCursor(SnowflakeOrder.class, SnowflakeOrder.class, (cb, cq, root) -> {
+                    }, 1000, batch -> {
+                        count[0] += batch.size();
+                        if (count[0] % SAMPLE_INTERVAL == 0) {
+                            heapUsage.sample();
+                        }
+                    });
+                    break;
+            }
+            return null;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,39 @@
+package org.ddd.benchmark;
+
+import org.ddd.application.distributed.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake ID生成吞吐（多线程竞争单个生成器）
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Setup
+    public void setup() {
+        snowflakeIdGenerator = new SnowflakeIdGenerator(1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long nextId() {
+        return snowflakeIdGenerator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextIdContended() {
+        return snowflakeIdGenerator.nextId();
+    }
+}
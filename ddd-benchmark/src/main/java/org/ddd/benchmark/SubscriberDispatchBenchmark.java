@@ -0,0 +1,81 @@
+package org.ddd.benchmark;
+
+import org.ddd.domain.event.RocketMqDomainEventSubscriber;
+import org.ddd.domain.event.RocketMqDomainEventSubscriberManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订阅者分发：经由Spring事件广播 vs 跳过无@EventListener监听的Spring事件
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriberDispatchBenchmark {
+    private static final int LISTENERS = 20;
+
+    @Param({"false", "true"})
+    private boolean skipUnlistenedSpringEvent;
+
+    private GenericApplicationContext applicationContext;
+    private RocketMqDomainEventSubscriberManager manager;
+    private BenchmarkEvent payload;
+
+    @Setup
+    public void setup() {
+        applicationContext = new GenericApplicationContext();
+        for (int i = 0; i < LISTENERS; i++) {
+            applicationContext.registerBean("listener" + i, UnrelatedListener.class);
+        }
+        applicationContext.refresh();
+
+        List<RocketMqDomainEventSubscriber> subscribers = new ArrayList<>();
+        subscribers.add(new CountingSubscriber());
+        manager = new RocketMqDomainEventSubscriberManager(subscribers, applicationContext);
+        JpaBenchmarkSupport.setField(manager, "skipUnlistenedSpringEvent", skipUnlistenedSpringEvent);
+        manager.onContextRefreshed(new ContextRefreshedEvent(applicationContext));
+        payload = BenchmarkEvent.of("order-1", 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public void trigger() {
+        manager.trigger(payload);
+    }
+
+    public static class UnrelatedListener {
+        @EventListener
+        public void on(String event) {
+        }
+    }
+
+    private static class CountingSubscriber extends RocketMqDomainEventSubscriber<BenchmarkEvent> {
+        private long count = 0;
+
+        @Override
+        public Class<BenchmarkEvent> forDomainEventClass() {
+            return BenchmarkEvent.class;
+        }
+
+        @Override
+        public void onEvent(BenchmarkEvent event) {
+            count++;
+        }
+    }
+}
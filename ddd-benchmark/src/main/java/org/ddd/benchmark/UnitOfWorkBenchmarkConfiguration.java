@@ -0,0 +1,127 @@
+package org.ddd.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.ddd.domain.event.DomainEventPublisher;
+import org.ddd.domain.event.DomainEventSupervisor;
+import org.ddd.domain.event.RocketMqDomainEventSubscriberManager;
+import org.ddd.domain.event.impl.DefaultDomainEventSupervisor;
+import org.ddd.domain.repo.*;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 工作单元基准测试上下文
+ * 按starter的装配方式构建JpaUnitOfWork（事务代理、事务事件监听），事件发布及订阅为空实现
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Configuration
+@EnableTransactionManagement(proxyTargetClass = true)
+public class UnitOfWorkBenchmarkConfiguration {
+
+    /**
+     * 创建上下文
+     *
+     * @param properties 配置项，如ddd.domain.JpaUnitOfWork.batchSave.enable
+     * @return
+     */
+    public static AnnotationConfigApplicationContext create(Map<String, Object> properties) {
+        AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext();
+        applicationContext.getBeanFactory().setConversionService(new DefaultConversionService());
+        applicationContext.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("benchmark", new HashMap<>(properties)));
+        applicationContext.register(UnitOfWorkBenchmarkConfiguration.class);
+        applicationContext.refresh();
+        return applicationContext;
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(4);
+        return dataSource;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put(AvailableSettings.HBM2DDL_AUTO, "create-drop");
+        jpaProperties.put(AvailableSettings.STATEMENT_BATCH_SIZE, 1000);
+        jpaProperties.put(AvailableSettings.ORDER_INSERTS, true);
+        jpaProperties.put(AvailableSettings.ORDER_UPDATES, true);
+        LocalContainerEntityManagerFactoryBean entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        entityManagerFactoryBean.setPackagesToScan(JpaBenchmarkSupport.ENTITY_PACKAGE);
+        entityManagerFactoryBean.setJpaPropertyMap(jpaProperties);
+        return entityManagerFactoryBean;
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor() {
+        return new JpaEntityIdentifierAccessor();
+    }
+
+    @Bean
+    public JpaUnitOfWork jpaUnitOfWork(ApplicationEventPublisher applicationEventPublisher, JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor) {
+        DomainEventSupervisor domainEventSupervisor = new DefaultDomainEventSupervisor();
+        DomainEventPublisher domainEventPublisher = eventPayload -> {
+        };
+        RocketMqDomainEventSubscriberManager domainEventSubscriberManager = new RocketMqDomainEventSubscriberManager(
+                Collections.emptyList(), applicationEventPublisher);
+        return new BenchmarkUnitOfWork(applicationEventPublisher, domainEventSupervisor, domainEventPublisher, domainEventSubscriberManager,
+                new NoopEventRecordRepository(), new JpaSpecificationManager(new ArrayList<>()),
+                new JpaPersistListenerManager(new ArrayList<>(), jpaEntityIdentifierAccessor), jpaEntityIdentifierAccessor);
+    }
+
+    @Bean
+    public UnitOfWorkInstaller unitOfWorkInstaller(JpaUnitOfWork jpaUnitOfWork) {
+        BenchmarkUnitOfWork.install(jpaUnitOfWork);
+        return new UnitOfWorkInstaller();
+    }
+
+    public static class UnitOfWorkInstaller {
+    }
+
+    /**
+     * 仅用于安装事务代理实例（同starter中JpaLoader）
+     */
+    public static class BenchmarkUnitOfWork extends JpaUnitOfWork {
+        public BenchmarkUnitOfWork(ApplicationEventPublisher applicationEventPublisher, DomainEventSupervisor domainEventSupervisor,
+                                   DomainEventPublisher domainEventPublisher, RocketMqDomainEventSubscriberManager domainEventSubscriberManager,
+                                   NoopEventRecordRepository eventRecordRepository, JpaSpecificationManager jpaSpecificationManager,
+                                   JpaPersistListenerManager jpaPersistListenerManager, JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor) {
+            super(applicationEventPublisher, domainEventSupervisor, domainEventPublisher, domainEventSubscriberManager,
+                    eventRecordRepository, jpaSpecificationManager, jpaPersistListenerManager, jpaEntityIdentifierAccessor);
+        }
+
+        static void install(JpaUnitOfWork jpaUnitOfWork) {
+            instance = jpaUnitOfWork;
+        }
+    }
+}
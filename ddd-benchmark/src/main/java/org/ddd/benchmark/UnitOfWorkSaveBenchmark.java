@@ -0,0 +1,65 @@
+package org.ddd.benchmark;
+
+import org.ddd.application.distributed.SnowflakeIdGenerator;
+import org.ddd.benchmark.entity.SnowflakeOrder;
+import org.ddd.domain.repo.JpaUnitOfWork;
+import org.ddd.domain.repo.SnowflakeIdentifierGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工作单元保存：JpaUnitOfWork.save 逐条保存（每条新增后refresh） vs 批量保存（按类型分组、JDBC批量insert）及批量保存下的按需refresh
+ * 实体使用Snowflake主键，hibernate.jdbc.batch_size=1000，hibernate.order_inserts=true
+ * <p>
+ * mode取值：
+ * single       batchSave关闭（非批量模式下新增实体总是refresh）
+ * batch        batchSave开启，不refresh
+ * batchRefresh batchSave开启，SnowflakeOrder配置为新增后refresh
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UnitOfWorkSaveBenchmark {
+    @Param({"single", "batch", "batchRefresh"})
+    private String mode;
+    @Param({"10", "1000", "100000"})
+    private int count;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private JpaUnitOfWork unitOfWork;
+    private int seq = 0;
+
+    @Setup
+    public void setup() {
+        SnowflakeIdentifierGenerator.configure(new SnowflakeIdGenerator(1));
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("ddd.domain.JpaUnitOfWork.batchSave.enable", !"single".equals(mode));
+        properties.put("ddd.domain.JpaUnitOfWork.batchSave.refreshEntities",
+                "batchRefresh".equals(mode) ? SnowflakeOrder.class.getSimpleName() : "");
+        applicationContext = UnitOfWorkBenchmarkConfiguration.create(properties);
+        unitOfWork = applicationContext.getBean(JpaUnitOfWork.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public void save() {
+        for (int i = 0; i < count; i++) {
+            unitOfWork.persist(new SnowflakeOrder("order-" + (seq++), i));
+        }
+        unitOfWork.save();
+    }
+}
@@ -0,0 +1,36 @@
+package org.ddd.benchmark.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * 数据库自增主键实体
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Entity
+@Table(name = "`identity_order`")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdentityOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "`id`")
+    private Long id;
+
+    @Column(name = "`order_no`")
+    private String orderNo;
+
+    @Column(name = "`amount`")
+    private Integer amount;
+
+    public IdentityOrder(String orderNo, Integer amount) {
+        this.orderNo = orderNo;
+        this.amount = amount;
+    }
+}
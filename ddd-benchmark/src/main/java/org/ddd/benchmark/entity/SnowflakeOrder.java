@@ -0,0 +1,38 @@
+package org.ddd.benchmark.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+
+/**
+ * Snowflake主键实体
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Entity
+@Table(name = "`snowflake_order`")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SnowflakeOrder {
+    @Id
+    @GeneratedValue(generator = "org.ddd.domain.repo.SnowflakeIdentifierGenerator")
+    @GenericGenerator(name = "org.ddd.domain.repo.SnowflakeIdentifierGenerator", strategy = "org.ddd.domain.repo.SnowflakeIdentifierGenerator")
+    @Column(name = "`id`")
+    private Long id;
+
+    @Column(name = "`order_no`")
+    private String orderNo;
+
+    @Column(name = "`amount`")
+    private Integer amount;
+
+    public SnowflakeOrder(String orderNo, Integer amount) {
+        this.orderNo = orderNo;
+        this.amount = amount;
+    }
+}
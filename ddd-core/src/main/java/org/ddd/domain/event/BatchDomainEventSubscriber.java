@@ -0,0 +1,26 @@
+package org.ddd.domain.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量领域事件订阅
+ * 同一批次拉取的多条事件一次性交付，便于订阅方批量写入；
+ * 批量处理异常时逐条重新交付（每次单元素列表）以隔离异常事件，订阅方需保证批量处理的原子性或幂等
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface BatchDomainEventSubscriber<Event> extends DomainEventSubscriber<Event> {
+    /**
+     * 领域事件批量消费逻辑
+     *
+     * @param events
+     */
+    void onEvents(List<Event> events);
+
+    @Override
+    default void onEvent(Event event) {
+        onEvents(Collections.singletonList(event));
+    }
+}
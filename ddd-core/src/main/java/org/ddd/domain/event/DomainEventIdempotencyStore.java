@@ -0,0 +1,37 @@
+package org.ddd.domain.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * 领域事件消费幂等存储
+ * 记录各消费组已成功处理的事件唯一标识，重复投递的事件跳过订阅处理
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface DomainEventIdempotencyStore {
+    /**
+     * 是否已处理
+     *
+     * @param consumerGroup
+     * @param eventUuid
+     * @return
+     */
+    boolean isProcessed(String consumerGroup, String eventUuid);
+
+    /**
+     * 标记已处理
+     *
+     * @param consumerGroup
+     * @param eventUuid
+     */
+    void markProcessed(String consumerGroup, String eventUuid);
+
+    /**
+     * 清理早于指定时间的处理记录
+     *
+     * @param before
+     */
+    default void purge(LocalDateTime before) {
+    }
+}
@@ -0,0 +1,232 @@
+package org.ddd.domain.event;
+
+import org.ddd.domain.event.annotation.DomainEvent;
+import org.ddd.share.annotation.Retry;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 领域事件元数据
+ * 缓存@DomainEvent、@Retry注解解析及目标占位符解析结果，发布路径上每个事件仅一次Map查找
+ * <p>
+ * 启动时通过initialize预建不可变注册表；未预建的事件类型首次访问时解析并以写时复制方式加入注册表；
+ * 目标占位符解析由发送方通过configurePlaceholderResolver安装，安装时已注册的元数据按新解析器重建
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class DomainEventMetadata {
+    private static volatile Map<Class<?>, DomainEventMetadata> registry = Collections.emptyMap();
+    private static volatile Function<String, String> placeholderResolver = Function.identity();
+
+    private final Class<?> eventClass;
+    private final String eventType;
+    private final String destination;
+    private final String topic;
+    private final String tag;
+    private final String subscriber;
+    private final boolean persist;
+    private final String orderKey;
+    private final boolean retryConfigured;
+    private final int retryTimes;
+    private final int[] retryIntervals;
+    private final int expireAfterMinutes;
+
+    private DomainEventMetadata(Class<?> eventClass, Function<String, String> placeholderResolver) {
+        this.eventClass = eventClass;
+        DomainEvent domainEvent = eventClass.getAnnotation(DomainEvent.class);
+        this.eventType = domainEvent == null ? null : domainEvent.value();
+        this.subscriber = domainEvent == null ? DomainEvent.NONE_SUBSCRIBER : domainEvent.subscriber();
+        this.persist = domainEvent != null && domainEvent.persist();
+        this.orderKey = domainEvent == null || domainEvent.orderKey().isEmpty() ? null : domainEvent.orderKey();
+        this.destination = eventType == null || eventType.isEmpty() ? eventType : placeholderResolver.apply(eventType);
+        if (destination != null && destination.lastIndexOf(':') > 0) {
+            this.topic = destination.substring(0, destination.lastIndexOf(':'));
+            this.tag = destination.substring(destination.lastIndexOf(':') + 1);
+        } else {
+            this.topic = destination;
+            this.tag = "";
+        }
+        Retry retry = eventClass.getAnnotation(Retry.class);
+        this.retryConfigured = retry != null;
+        this.retryTimes = retry == null ? 0 : retry.retryTimes();
+        this.retryIntervals = retry == null ? new int[0] : retry.retryIntervals().clone();
+        this.expireAfterMinutes = retry == null ? 0 : retry.expireAfter();
+    }
+
+    /**
+     * 预建注册表
+     *
+     * @param placeholderResolver 目标占位符解析
+     * @param eventClasses
+     */
+    public static synchronized void initialize(Function<String, String> placeholderResolver, Collection<Class<?>> eventClasses) {
+        configurePlaceholderResolver(placeholderResolver);
+        Map<Class<?>, DomainEventMetadata> registry = new HashMap<>(DomainEventMetadata.registry);
+        for (Class<?> eventClass : eventClasses) {
+            if (eventClass.isAnnotationPresent(DomainEvent.class) && !registry.containsKey(eventClass)) {
+                registry.put(eventClass, new DomainEventMetadata(eventClass, DomainEventMetadata.placeholderResolver));
+            }
+        }
+        DomainEventMetadata.registry = Collections.unmodifiableMap(registry);
+    }
+
+    /**
+     * 安装目标占位符解析，已注册的元数据按新解析器重建
+     *
+     * @param placeholderResolver
+     */
+    public static synchronized void configurePlaceholderResolver(Function<String, String> placeholderResolver) {
+        DomainEventMetadata.placeholderResolver = placeholderResolver == null ? Function.identity() : placeholderResolver;
+        Map<Class<?>, DomainEventMetadata> registry = new HashMap<>();
+        for (Class<?> eventClass : DomainEventMetadata.registry.keySet()) {
+            registry.put(eventClass, new DomainEventMetadata(eventClass, DomainEventMetadata.placeholderResolver));
+        }
+        DomainEventMetadata.registry = Collections.unmodifiableMap(registry);
+    }
+
+    /**
+     * 获取事件元数据
+     *
+     * @param eventClass
+     * @return
+     */
+    public static DomainEventMetadata of(Class<?> eventClass) {
+        DomainEventMetadata metadata = registry.get(eventClass);
+        if (metadata == null) {
+            metadata = register(eventClass);
+        }
+        return metadata;
+    }
+
+    /**
+     * 获取事件元数据
+     *
+     * @param payload
+     * @return
+     */
+    public static DomainEventMetadata of(Object payload) {
+        return of(payload.getClass());
+    }
+
+    private static synchronized DomainEventMetadata register(Class<?> eventClass) {
+        DomainEventMetadata metadata = registry.get(eventClass);
+        if (metadata == null) {
+            metadata = new DomainEventMetadata(eventClass, placeholderResolver);
+            Map<Class<?>, DomainEventMetadata> registry = new HashMap<>(DomainEventMetadata.registry);
+            registry.put(eventClass, metadata);
+            DomainEventMetadata.registry = Collections.unmodifiableMap(registry);
+        }
+        return metadata;
+    }
+
+    public Class<?> getEventClass() {
+        return eventClass;
+    }
+
+    /**
+     * 领域事件名称（@DomainEvent.value，未解析占位符），非领域事件为null
+     *
+     * @return
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * 已解析占位符的发送目标 topic[:tag]
+     *
+     * @return
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public String getSubscriber() {
+        return subscriber;
+    }
+
+    public boolean isPersist() {
+        return persist;
+    }
+
+    /**
+     * 是否顺序事件（定义了顺序键）
+     *
+     * @return
+     */
+    public boolean isOrderly() {
+        return orderKey != null;
+    }
+
+    /**
+     * 获取事件顺序键值
+     *
+     * @param payload
+     * @return 非顺序事件或顺序键值为空时返回null
+     */
+    public String getOrderKey(Object payload) {
+        if (orderKey == null || payload == null) {
+            return null;
+        }
+        Object value = PropertyAccessorFactory.forDirectFieldAccess(payload).getPropertyValue(orderKey);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    /**
+     * 是否集成事件（定义了领域事件名称）
+     *
+     * @return
+     */
+    public boolean isIntegrationEvent() {
+        return destination != null && !destination.isEmpty();
+    }
+
+    /**
+     * 是否标注@Retry
+     *
+     * @return
+     */
+    public boolean isRetryConfigured() {
+        return retryConfigured;
+    }
+
+    public int getRetryTimes() {
+        return retryTimes;
+    }
+
+    /**
+     * 第index次重试时间间隔，单位分钟，超出配置取末项，未配置返回-1
+     *
+     * @param index
+     * @return
+     */
+    public int getRetryInterval(int index) {
+        if (retryIntervals.length == 0) {
+            return -1;
+        }
+        if (index >= retryIntervals.length) {
+            index = retryIntervals.length - 1;
+        } else if (index < 0) {
+            index = 0;
+        }
+        return retryIntervals[index];
+    }
+
+    public int getExpireAfterMinutes() {
+        return expireAfterMinutes;
+    }
+}
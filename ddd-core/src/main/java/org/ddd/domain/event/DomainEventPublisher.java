@@ -1,5 +1,7 @@
 package org.ddd.domain.event;
 
+import java.util.List;
+
 /**
  * @author qiaohe
  * @date 2023/8/5
@@ -11,4 +13,14 @@ public interface DomainEventPublisher {
      * @param eventPayload
      */
     void publish(Object eventPayload);
+
+    /**
+     * 批量发布事件
+     * @param eventPayloads
+     */
+    default void publishAll(List<Object> eventPayloads) {
+        for (Object eventPayload : eventPayloads) {
+            publish(eventPayload);
+        }
+    }
 }
@@ -7,5 +7,16 @@ package org.ddd.domain.event;
 public interface DomainEventSubscriberManager {
     <Event> void trigger(Event eventPayload);
 
+    /**
+     * 触发领域事件
+     *
+     * @param eventPayload
+     * @param await        是否等待异步执行的订阅者完成
+     * @param <Event>
+     */
+    default <Event> void trigger(Event eventPayload, boolean await) {
+        trigger(eventPayload);
+    }
+
     boolean hasSubscriber(Class eventClass);
 }
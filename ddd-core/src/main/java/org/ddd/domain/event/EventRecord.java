@@ -19,6 +19,12 @@ public interface EventRecord {
      */
     void init(Object payload, String svcName, LocalDateTime now, Duration expireAfter, int retryTimes);
 
+    /**
+     * 获取事件唯一标识
+     * @return
+     */
+    String getEventUuid();
+
     /**
      * 获取事件主题
      * @return
@@ -43,4 +49,11 @@ public interface EventRecord {
      * @param now
      */
     void confirmDelivered(LocalDateTime now);
+
+    /**
+     * 发送完成（成功或失败），异步发送时由发送结果回调触发；发布者须在每条事件发送结束时调用
+     * @param delivered 是否发送成功
+     */
+    default void completeSend(boolean delivered) {
+    }
 }
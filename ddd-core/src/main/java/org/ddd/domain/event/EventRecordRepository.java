@@ -1,5 +1,8 @@
 package  org.ddd.domain.event;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * @author qiaohe
  * @date 2023/9/9
@@ -7,4 +10,26 @@ package  org.ddd.domain.event;
 public interface EventRecordRepository {
     public EventRecord create();
     public void save(EventRecord event);
+
+    /**
+     * 批量保存
+     * @param events
+     */
+    public default void saveAll(List<EventRecord> events) {
+        for (EventRecord event : events) {
+            save(event);
+        }
+    }
+
+    /**
+     * 批量确认发送成功
+     * @param events
+     * @param now
+     */
+    public default void confirmDeliveredAll(List<EventRecord> events, LocalDateTime now) {
+        for (EventRecord event : events) {
+            event.confirmDelivered(now);
+            save(event);
+        }
+    }
 }
@@ -38,4 +38,13 @@ public @interface DomainEvent {
      * @return
      */
     boolean persist() default false;
+
+    /**
+     * 顺序键
+     * 事件体属性路径（如 orderId、order.id），非空时同一顺序键的事件发送至同一队列并顺序消费；
+     * 不同顺序键之间仍并行
+     *
+     * @return
+     */
+    String orderKey() default "";
 }
@@ -1,41 +1,41 @@
 package org.ddd.domain.event.impl;
 
 import org.ddd.domain.event.DomainEventSupervisor;
+import org.ddd.domain.repo.UnitOfWorkContext;
 
 import java.util.Collections;
 import java.util.List;
 
 /**
+ * 领域事件附加于当前UnitOfWorkContext
+ *
  * @author qiaohe
  * @date 2023/8/13
  */
 public class DefaultDomainEventSupervisor implements DomainEventSupervisor {
     public static DomainEventSupervisor Instance = new DefaultDomainEventSupervisor();
-    private static final ThreadLocal<List<Object>> TL_EVENT_PAYLOADS = new ThreadLocal<List<Object>>();
     private static final List<Object> EMPTY_EVENT_PAYLOADS = Collections.emptyList();
 
     public void attach(Object eventPayload) {
-        List<Object> eventPayloads = TL_EVENT_PAYLOADS.get();
-        if(eventPayloads == null){
-            eventPayloads = new java.util.ArrayList<Object>();
-            TL_EVENT_PAYLOADS.set(eventPayloads);
-        }
-        eventPayloads.add(eventPayload);
+        UnitOfWorkContext.current().attachEvent(eventPayload);
     }
 
     public void detach(Object eventPayload) {
-        List<Object> eventPayloads = TL_EVENT_PAYLOADS.get();
-        if(eventPayloads != null){
-            eventPayloads.remove(eventPayload);
+        UnitOfWorkContext context = UnitOfWorkContext.peek();
+        if(context != null){
+            context.detachEvent(eventPayload);
         }
     }
 
     public void reset() {
-        TL_EVENT_PAYLOADS.remove();
+        UnitOfWorkContext context = UnitOfWorkContext.peek();
+        if(context != null){
+            context.resetEvents();
+        }
     }
 
     public List<Object> getEvents() {
-        List<Object> eventPayloads = TL_EVENT_PAYLOADS.get();
-        return eventPayloads != null ? eventPayloads : EMPTY_EVENT_PAYLOADS;
+        UnitOfWorkContext context = UnitOfWorkContext.peek();
+        return context != null ? context.getEvents() : EMPTY_EVENT_PAYLOADS;
     }
 }
@@ -0,0 +1,36 @@
+package org.ddd.domain.repo;
+
+/**
+ * 基于ThreadLocal的UnitOfWork上下文存储
+ * inheritable模式下子线程创建时继承父线程上下文，适用于按任务创建线程（如虚拟线程）的场景；
+ * 线程池线程会继承其创建时的上下文，线程池场景应使用UnitOfWorkContext.wrap传递
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class ThreadLocalUnitOfWorkContextHolder implements UnitOfWorkContextHolder {
+    private final ThreadLocal<UnitOfWorkContext> context;
+
+    public ThreadLocalUnitOfWorkContextHolder() {
+        this(false);
+    }
+
+    public ThreadLocalUnitOfWorkContextHolder(boolean inheritable) {
+        this.context = inheritable ? new InheritableThreadLocal<>() : new ThreadLocal<>();
+    }
+
+    @Override
+    public UnitOfWorkContext get() {
+        return context.get();
+    }
+
+    @Override
+    public void set(UnitOfWorkContext context) {
+        this.context.set(context);
+    }
+
+    @Override
+    public void remove() {
+        context.remove();
+    }
+}
@@ -0,0 +1,266 @@
+package org.ddd.domain.repo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * UnitOfWork上下文
+ * 持有待持久化、待删除实体及已附加的领域事件
+ * <p>
+ * 使用方式：
+ * 1. 显式作用域：UnitOfWorkContext.create().call(() -> {...})，作用域内（含跨线程wrap的任务）共享同一上下文
+ * 2. 跨线程传递：UnitOfWorkContext.wrap(task) 捕获当前上下文，在执行线程上绑定（可作为TaskDecorator使用）
+ * 3. 兼容模式：未显式绑定时按线程懒创建，reset后上下文为空或最外层保存结束（无论成功与否）即解绑，不会在线程池线程上残留
+ * <p>
+ * 上下文存储策略可通过{@link #setHolder(UnitOfWorkContextHolder)}替换，默认基于ThreadLocal
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class UnitOfWorkContext {
+    private static volatile UnitOfWorkContextHolder holder = new ThreadLocalUnitOfWorkContextHolder();
+
+    private final Set<Object> persistedEntities = new HashSet<>();
+    private final Set<Object> removedEntities = new HashSet<>();
+    private final List<Object> eventPayloads = new ArrayList<>();
+    /**
+     * 是否为兼容模式下按线程懒创建的上下文
+     */
+    private final boolean implicit;
+    /**
+     * 保存嵌套层数
+     */
+    private int saveDepth = 0;
+
+    private UnitOfWorkContext(boolean implicit) {
+        this.implicit = implicit;
+    }
+
+    /**
+     * 替换上下文存储策略，应在应用启动阶段设置
+     *
+     * @param holder
+     */
+    public static void setHolder(UnitOfWorkContextHolder holder) {
+        UnitOfWorkContext.holder = holder == null ? new ThreadLocalUnitOfWorkContextHolder() : holder;
+    }
+
+    /**
+     * 创建上下文（不绑定线程）
+     *
+     * @return
+     */
+    public static UnitOfWorkContext create() {
+        return new UnitOfWorkContext(false);
+    }
+
+    /**
+     * 获取当前上下文，不存在则创建并绑定到当前线程（兼容模式）
+     *
+     * @return
+     */
+    public static UnitOfWorkContext current() {
+        UnitOfWorkContext context = holder.get();
+        if (context == null) {
+            context = new UnitOfWorkContext(true);
+            holder.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * 获取当前上下文，不存在返回null
+     *
+     * @return
+     */
+    public static UnitOfWorkContext peek() {
+        return holder.get();
+    }
+
+    /**
+     * 解除当前线程绑定的上下文
+     */
+    public static void clear() {
+        holder.remove();
+    }
+
+    /**
+     * 在本上下文中执行，执行结束恢复线程原绑定
+     *
+     * @param supplier
+     * @param <T>
+     * @return
+     */
+    public <T> T call(Supplier<T> supplier) {
+        UnitOfWorkContext previous = holder.get();
+        holder.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                holder.remove();
+            } else {
+                holder.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 在本上下文中执行，执行结束恢复线程原绑定
+     *
+     * @param runnable
+     */
+    public void run(Runnable runnable) {
+        call(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * 捕获当前上下文，任务执行时绑定到执行线程
+     *
+     * @param runnable
+     * @return
+     */
+    public static Runnable wrap(Runnable runnable) {
+        UnitOfWorkContext context = peek();
+        if (context == null) {
+            return runnable;
+        }
+        return () -> context.run(runnable);
+    }
+
+    /**
+     * 捕获当前上下文，任务执行时绑定到执行线程
+     *
+     * @param callable
+     * @param <T>
+     * @return
+     */
+    public static <T> Callable<T> wrap(Callable<T> callable) {
+        UnitOfWorkContext context = peek();
+        if (context == null) {
+            return callable;
+        }
+        return () -> {
+            Object[] result = new Object[1];
+            Exception[] exception = new Exception[1];
+            context.run(() -> {
+                try {
+                    result[0] = callable.call();
+                } catch (Exception ex) {
+                    exception[0] = ex;
+                }
+            });
+            if (exception[0] != null) {
+                throw exception[0];
+            }
+            return (T) result[0];
+        };
+    }
+
+    public synchronized void persist(Object entity) {
+        persistedEntities.add(entity);
+    }
+
+    public synchronized void remove(Object entity) {
+        removedEntities.add(entity);
+    }
+
+    /**
+     * 取出并清空待持久化实体
+     *
+     * @return
+     */
+    public synchronized Set<Object> drainPersistedEntities() {
+        Set<Object> entities = new HashSet<>(persistedEntities);
+        persistedEntities.clear();
+        return entities;
+    }
+
+    /**
+     * 取出并清空待删除实体
+     *
+     * @return
+     */
+    public synchronized Set<Object> drainRemovedEntities() {
+        Set<Object> entities = new HashSet<>(removedEntities);
+        removedEntities.clear();
+        return entities;
+    }
+
+    public synchronized void attachEvent(Object eventPayload) {
+        eventPayloads.add(eventPayload);
+    }
+
+    public synchronized void detachEvent(Object eventPayload) {
+        eventPayloads.remove(eventPayload);
+    }
+
+    public synchronized List<Object> getEvents() {
+        return eventPayloads.isEmpty()
+                ? Collections.emptyList()
+                : new ArrayList<>(eventPayloads);
+    }
+
+    /**
+     * 开始保存
+     */
+    public synchronized void beginSave() {
+        saveDepth++;
+    }
+
+    /**
+     * 结束保存（须在finally中调用）
+     * 最外层保存结束时，兼容模式的上下文清空并解绑，失败路径残留的实体、事件不会泄漏到线程的后续任务
+     */
+    public void endSave() {
+        synchronized (this) {
+            if (--saveDepth > 0 || !implicit) {
+                return;
+            }
+            persistedEntities.clear();
+            removedEntities.clear();
+            eventPayloads.clear();
+        }
+        releaseIfIdle();
+    }
+
+    /**
+     * 重置实体
+     */
+    public void resetEntities() {
+        synchronized (this) {
+            persistedEntities.clear();
+            removedEntities.clear();
+        }
+        releaseIfIdle();
+    }
+
+    /**
+     * 重置事件
+     */
+    public void resetEvents() {
+        synchronized (this) {
+            eventPayloads.clear();
+        }
+        releaseIfIdle();
+    }
+
+    private void releaseIfIdle() {
+        if (implicit && holder.get() == this) {
+            synchronized (this) {
+                if (!persistedEntities.isEmpty() || !removedEntities.isEmpty() || !eventPayloads.isEmpty()) {
+                    return;
+                }
+            }
+            holder.remove();
+        }
+    }
+}
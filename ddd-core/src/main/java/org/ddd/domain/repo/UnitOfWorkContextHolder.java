@@ -0,0 +1,29 @@
+package org.ddd.domain.repo;
+
+/**
+ * UnitOfWork上下文存储策略
+ * 可替换为基于ScopedValue、TransmittableThreadLocal等的实现，以适配虚拟线程及跨线程传递
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface UnitOfWorkContextHolder {
+    /**
+     * 获取当前上下文
+     *
+     * @return 不存在返回null
+     */
+    UnitOfWorkContext get();
+
+    /**
+     * 绑定当前上下文
+     *
+     * @param context
+     */
+    void set(UnitOfWorkContext context);
+
+    /**
+     * 解除当前上下文绑定
+     */
+    void remove();
+}
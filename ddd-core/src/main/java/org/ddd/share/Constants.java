@@ -6,7 +6,19 @@ package org.ddd.share;
  */
 public class Constants {
     public static final String CONFIG_KEY_4_SVC_NAME = "${spring.application.name:default}";
+    public static final String CONFIG_KEY_4_DOMAIN_UNITOFWORK_CONTEXT_INHERITABLE = "${ddd.domain.UnitOfWork.context.inheritable:false}";
     public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_PACKAGE = "${ddd.domain.event.subscriber.scanPackage:}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_SKIPUNLISTENEDSPRINGEVENT = "${ddd.domain.event.subscriber.skipUnlistenedSpringEvent:false}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_ENABLE = "${ddd.domain.event.subscriber.fanout.enable:false}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_THREADPOOLSIZE = "${ddd.domain.event.subscriber.fanout.threadPoolSize:8}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_QUEUESIZE = "${ddd.domain.event.subscriber.fanout.queueSize:1000}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_AWAIT = "${ddd.domain.event.subscriber.fanout.await:true}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_SHUTDOWNAWAITSECONDS = "${ddd.domain.event.subscriber.fanout.shutdownAwaitSeconds:30}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_CACHESIZE = "${ddd.domain.event.subscriber.idempotent.cacheSize:100000}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_CACHEWINDOWSECONDS = "${ddd.domain.event.subscriber.idempotent.cacheWindowSeconds:600}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_FILTER_ENABLE = "${ddd.domain.event.subscriber.idempotent.filter.enable:true}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_FILTER_EXPECTEDINSERTIONS = "${ddd.domain.event.subscriber.idempotent.filter.expectedInsertions:1000000}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_RETENTIONDAYS = "${ddd.domain.event.subscriber.idempotent.retentionDays:7}";
 
     public static final String CONFIG_KEY_4_DISTRIBUTED_LOCKER_JDBC_TABLE = "${ddd.distributed.locker.jdbc.table:__locker}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_LOCKER_JDBC_FIELD_NAME = "${ddd.distributed.locker.jdbc.fieldName:name}";
@@ -14,16 +26,41 @@ public class Constants {
     public static final String CONFIG_KEY_4_DISTRIBUTED_LOCKER_JDBC_FIELD_LOCKAT = "${ddd.distributed.locker.jdbc.fieldLockAt:lock_at}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_LOCKER_JDBC_FIELD_UNLOCKAT = "${ddd.distributed.locker.jdbc.fieldUnlockAt:unlock_at}";
 
+    public static final String CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_ENABLE = "${ddd.distributed.idgenerator.snowflake.enable:false}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_WORKERID = "${ddd.distributed.idgenerator.snowflake.workerId:-1}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_LEASESECONDS = "${ddd.distributed.idgenerator.snowflake.leaseSeconds:60}";
+
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_THREADPOOLSIIZE = "${ddd.domain.event.schedule.threadPoolSize:4}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_BATCHSIZE = "${ddd.domain.event.schedule.batchSize:10}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_MAXCONCURRENT = "${ddd.domain.eventschedule.maxConcurrency:10}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_INTERVALSECONDS = "${ddd.domain.event.schedule.intervalSeconds:60}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_MAXLOCKSECONDS = "${ddd.domain.event.schedule.maxLockSeconds:30}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PAYLOAD_CODEC = "${ddd.domain.event.payload.codec:json}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PAYLOAD_COMPRESSTHRESHOLD = "${ddd.domain.event.payload.compressThreshold:0}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_ASYNC = "${ddd.domain.event.publisher.ack.async:true}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_BATCHSIZE = "${ddd.domain.event.publisher.ack.batchSize:200}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_FLUSHINTERVALMILLIS = "${ddd.domain.event.publisher.ack.flushIntervalMillis:100}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_QUEUECAPACITY = "${ddd.domain.event.publisher.ack.queueCapacity:10000}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_SHUTDOWNAWAITSECONDS = "${ddd.domain.event.publisher.ack.shutdownAwaitSeconds:30}";
+    public static final String CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_BATCH_ENABLE = "${ddd.domain.event.publisher.batch.enable:false}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_CRON = "${ddd.domain.event.schedule.cron:0 */1 * * * ?}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_QUEUECAPACITY = "${ddd.domain.event.schedule.queueCapacity:1000}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_SHUTDOWNAWAITSECONDS = "${ddd.domain.event.schedule.shutdownAwaitSeconds:30}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_ENABLE = "${ddd.domain.event.schedule.relay.enable:false}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_MINIDLEMILLIS = "${ddd.domain.event.schedule.relay.minIdleMillis:10}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_MAXIDLEMILLIS = "${ddd.domain.event.schedule.relay.maxIdleMillis:1000}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_BATCHSIZE =  "${ddd.distributed.event.schedule.archive.batchSize:100}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_EXPIREDAYS = "${ddd.distributed.event.schedule.archive.expireDays:7}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_MAXLOCKSECONDS = "${ddd.distributed.event.schedule.archive.maxLockSeconds:172800}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_MODE = "${ddd.distributed.event.schedule.archive.mode:entity}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_CHUNKSIZE = "${ddd.distributed.event.schedule.archive.chunkSize:10000}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_SAFETYLAGSECONDS = "${ddd.distributed.event.schedule.archive.safetyLagSeconds:600}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_CRON =  "${ddd.distributed.event.schedule.archive.cron:0 0 2 * * ?}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ADDPARTITION_CRON = "${ddd.domain.event.schedule.addpartition.cron:0 0 0 * * ?}";
     public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ADDPARTITION_ENABLE = "${ddd.domain.event.schedule.addpartition.enable:false}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_GRANULARITY = "${ddd.domain.event.schedule.partition.granularity:month}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_PRECREATE = "${ddd.domain.event.schedule.partition.preCreate:2}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_EVENTRETENTIONDAYS = "${ddd.domain.event.schedule.partition.eventRetentionDays:0}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_ARCHIVEDRETENTIONDAYS = "${ddd.domain.event.schedule.partition.archivedRetentionDays:0}";
+    public static final String CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_EXCHANGEONDROP = "${ddd.domain.event.schedule.partition.exchangeOnDrop:false}";
 }
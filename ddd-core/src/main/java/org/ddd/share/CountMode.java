@@ -0,0 +1,26 @@
+package org.ddd.share;
+
+/**
+ * 分页计数模式
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public enum CountMode {
+    /**
+     * 精确计数
+     */
+    EXACT,
+    /**
+     * 不计数
+     */
+    NONE,
+    /**
+     * 不计数，多查询一条记录判断是否存在下一页
+     */
+    HAS_NEXT,
+    /**
+     * 估算计数，同一查询条件的计数结果按TTL缓存
+     */
+    ESTIMATE
+}
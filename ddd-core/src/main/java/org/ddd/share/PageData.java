@@ -52,6 +52,20 @@ public class PageData<T> {
     @ApiModelProperty(value = "记录列表")
     private List<T> list;
 
+    /**
+     * 是否存在下一页，未知时为null
+     */
+    @Schema(description = "是否存在下一页")
+    @ApiModelProperty(value = "是否存在下一页")
+    private Boolean hasNext;
+
+    /**
+     * 下一页游标，游标分页时返回，null表示没有下一页
+     */
+    @Schema(description = "下一页游标")
+    @ApiModelProperty(value = "下一页游标")
+    private String nextCursor;
+
     /**
      * 生成空分页返回
      *
@@ -78,6 +92,7 @@ public class PageData<T> {
         pageData.pageNum = pageParam.getPageNum();
         pageData.totalCount = totalCount;
         pageData.list = list;
+        pageData.hasNext = resolveHasNext(pageData.pageSize, pageData.pageNum, totalCount);
         return pageData;
 
     }
@@ -97,6 +112,53 @@ public class PageData<T> {
         pageData.pageNum = pageNum;
         pageData.totalCount = totalCount;
         pageData.list = list;
+        pageData.hasNext = resolveHasNext(pageSize, pageNum, totalCount);
+        return pageData;
+    }
+
+    /**
+     * 新建不计数分页结果
+     *
+     * @param pageSize
+     * @param pageNum
+     * @param list
+     * @param hasNext
+     * @param <T>
+     * @return
+     */
+    public static <T> PageData<T> createWithHasNext(Integer pageSize, Integer pageNum, List<T> list, Boolean hasNext) {
+        PageData<T> pageData = new PageData<>();
+        pageData.pageSize = pageSize;
+        pageData.pageNum = pageNum;
+        pageData.list = list;
+        pageData.hasNext = hasNext;
+        return pageData;
+    }
+
+    private static Boolean resolveHasNext(Integer pageSize, Integer pageNum, Long totalCount) {
+        if (pageSize == null || pageNum == null || totalCount == null) {
+            return null;
+        }
+        return (long) pageSize * pageNum < totalCount;
+    }
+
+    /**
+     * 新建游标分页结果
+     *
+     * @param pageSize
+     * @param totalCount
+     * @param list
+     * @param nextCursor
+     * @param <T>
+     * @return
+     */
+    public static <T> PageData<T> createKeyset(Integer pageSize, Long totalCount, List<T> list, String nextCursor) {
+        PageData<T> pageData = new PageData<>();
+        pageData.pageSize = pageSize;
+        pageData.totalCount = totalCount;
+        pageData.list = list;
+        pageData.nextCursor = nextCursor;
+        pageData.hasNext = nextCursor != null;
         return pageData;
     }
 
@@ -108,6 +170,8 @@ public class PageData<T> {
      */
     public <D> PageData<D> transform(Function<T, D> map) {
         PageData<D> pageData = create(pageSize, pageNum, totalCount, getList().stream().map(map).collect(Collectors.toList()));
+        pageData.hasNext = hasNext;
+        pageData.nextCursor = nextCursor;
         return pageData;
     }
 }
@@ -35,4 +35,25 @@ public class PageParam {
     @Schema(description="排序")
     @ApiModelProperty(value = "排序")
     private List<ListOrder> sort;
+
+    /**
+     * 游标，非null时使用游标分页（keyset），空字符串表示首页，后续页传入上一页返回的nextCursor；游标分页忽略页码
+     */
+    @Schema(description="游标，非null时使用游标分页，空字符串表示首页")
+    @ApiModelProperty(value = "游标，非null时使用游标分页，空字符串表示首页")
+    private String cursor;
+
+    /**
+     * 计数上限，精确计数时生效，null：不限；大于0：最多计数到该值；不计数请使用countMode=NONE
+     */
+    @Schema(description="计数上限，null不限，大于0最多计数到该值")
+    @ApiModelProperty(value = "计数上限，null不限，大于0最多计数到该值")
+    private Long countLimit;
+
+    /**
+     * 计数模式，null：页码分页精确计数、游标分页不计数
+     */
+    @Schema(description="计数模式：EXACT精确计数，NONE不计数，HAS_NEXT仅判断是否有下一页，ESTIMATE估算计数")
+    @ApiModelProperty(value = "计数模式：EXACT精确计数，NONE不计数，HAS_NEXT仅判断是否有下一页，ESTIMATE估算计数")
+    private CountMode countMode;
 }
@@ -0,0 +1,44 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+import org.ddd.domain.event.annotation.DomainEvent;
+
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class DomainEventMetadataTest extends TestCase {
+
+    @Override
+    protected void tearDown() {
+        DomainEventMetadata.configurePlaceholderResolver(null);
+    }
+
+    public void testDestinationResolvedByInstalledResolver() {
+        DomainEventMetadata.configurePlaceholderResolver(null);
+        assertEquals("${topic}:tag", DomainEventMetadata.of(OrderCreated.class).getDestination());
+
+        DomainEventMetadata.configurePlaceholderResolver(value -> value.replace("${topic}", "order"));
+
+        DomainEventMetadata metadata = DomainEventMetadata.of(OrderCreated.class);
+        assertEquals("order:tag", metadata.getDestination());
+        assertEquals("order", metadata.getTopic());
+        assertEquals("tag", metadata.getTag());
+        assertEquals("${topic}:tag", metadata.getEventType());
+    }
+
+    public void testInitializeKeepsResolver() {
+        Function<String, String> resolver = value -> value.replace("${topic}", "order");
+        DomainEventMetadata.initialize(resolver, Collections.singleton(OrderCreated.class));
+
+        assertEquals("order:tag", DomainEventMetadata.of(OrderCreated.class).getDestination());
+        assertNull(DomainEventMetadata.of(String.class).getDestination());
+    }
+
+    @DomainEvent("${topic}:tag")
+    static class OrderCreated {
+    }
+}
@@ -0,0 +1,92 @@
+package org.ddd.domain.repo;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class UnitOfWorkContextTest extends TestCase {
+
+    @Override
+    protected void tearDown() {
+        UnitOfWorkContext.clear();
+        UnitOfWorkContext.setHolder(null);
+    }
+
+    public void testImplicitContextReleasedAfterFailedSave() {
+        UnitOfWorkContext context = UnitOfWorkContext.current();
+        context.attachEvent("event");
+        context.persist("entity");
+        context.beginSave();
+        try {
+            throw new IllegalStateException("save failed");
+        } catch (IllegalStateException ex) {
+            // expected
+        } finally {
+            context.endSave();
+        }
+
+        assertNull(UnitOfWorkContext.peek());
+        assertTrue(context.getEvents().isEmpty());
+        assertTrue(context.drainPersistedEntities().isEmpty());
+    }
+
+    public void testImplicitContextReleasedOnlyByOutermostSave() {
+        UnitOfWorkContext context = UnitOfWorkContext.current();
+        context.beginSave();
+        context.beginSave();
+        context.attachEvent("event");
+        context.endSave();
+
+        assertSame(context, UnitOfWorkContext.peek());
+        assertEquals(1, context.getEvents().size());
+
+        context.endSave();
+        assertNull(UnitOfWorkContext.peek());
+    }
+
+    public void testExplicitContextKeptAfterSave() {
+        UnitOfWorkContext context = UnitOfWorkContext.create();
+        context.run(() -> {
+            UnitOfWorkContext.current().attachEvent("event");
+            UnitOfWorkContext.current().beginSave();
+            UnitOfWorkContext.current().endSave();
+            assertSame(context, UnitOfWorkContext.peek());
+        });
+
+        assertNull(UnitOfWorkContext.peek());
+        assertEquals(1, context.getEvents().size());
+    }
+
+    public void testWrapBindsContextOnExecutingThread() throws InterruptedException {
+        UnitOfWorkContext context = UnitOfWorkContext.create();
+        AtomicReference<UnitOfWorkContext> seen = new AtomicReference<>();
+        Runnable task = context.call(() -> UnitOfWorkContext.wrap(() -> seen.set(UnitOfWorkContext.peek())));
+
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        assertSame(context, seen.get());
+    }
+
+    public void testInheritableHolderPropagatesToChildThread() throws InterruptedException {
+        UnitOfWorkContext.setHolder(new ThreadLocalUnitOfWorkContextHolder(true));
+        UnitOfWorkContext context = UnitOfWorkContext.create();
+        AtomicReference<UnitOfWorkContext> seen = new AtomicReference<>();
+        context.run(() -> {
+            Thread thread = new Thread(() -> seen.set(UnitOfWorkContext.peek()));
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertSame(context, seen.get());
+    }
+}
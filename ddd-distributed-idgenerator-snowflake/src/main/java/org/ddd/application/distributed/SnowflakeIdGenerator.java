@@ -0,0 +1,113 @@
+package org.ddd.application.distributed;
+
+import org.ddd.share.DomainException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake ID生成器
+ * 41位毫秒时间戳 + 10位workerId + 12位序列号
+ * 通过CAS推进(时间戳, 序列号)状态，无锁；单毫秒序列号耗尽或时钟回拨时向后借用时间戳，
+ * 借用超过上限才自旋等待时钟追上；
+ * 由SnowflakeWorkerIdDispatcher分配workerId时受租约约束，租约到期或丢失后停止生成，直至重新分配
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SnowflakeIdGenerator {
+    /**
+     * 起始时间 2023-01-01 00:00:00 UTC
+     */
+    public static final long EPOCH = 1672531200000L;
+    public static final int WORKER_ID_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_WORKER_ID = (1L << WORKER_ID_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_BORROW_MILLIS = 1000L;
+
+    private final AtomicLong state = new AtomicLong(0L);
+    private volatile long workerId;
+    /**
+     * workerId租约到期时间（毫秒时间戳），显式配置workerId时不限
+     */
+    private volatile long leaseExpireAt = Long.MAX_VALUE;
+
+    public SnowflakeIdGenerator(long workerId) {
+        setWorkerId(workerId);
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 切换workerId（如workerId租约丢失后重新分配）
+     *
+     * @param workerId
+     */
+    public void setWorkerId(long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new DomainException("Snowflake workerId超出范围: " + workerId);
+        }
+        this.workerId = workerId;
+    }
+
+    public long getLeaseExpireAt() {
+        return leaseExpireAt;
+    }
+
+    /**
+     * 设置workerId租约到期时间，到期后停止生成
+     *
+     * @param leaseExpireAt
+     */
+    public void setLeaseExpireAt(long leaseExpireAt) {
+        this.leaseExpireAt = leaseExpireAt;
+    }
+
+    /**
+     * 租约丢失，立即停止生成，直至重新设置workerId及租约
+     */
+    public void suspend() {
+        this.leaseExpireAt = 0L;
+    }
+
+    /**
+     * 生成ID
+     * workerId租约失效时抛出异常
+     *
+     * @return
+     */
+    public long nextId() {
+        while (true) {
+            long currentTimeMillis = currentTimeMillis();
+            if (currentTimeMillis >= leaseExpireAt) {
+                throw new DomainException("Snowflake workerId租约失效，暂停生成ID workerId=" + workerId);
+            }
+            long last = state.get();
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long now = currentTimeMillis - EPOCH;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else if (lastTimestamp - now > MAX_BORROW_MILLIS) {
+                // 借用时间过多（突发流量或时钟大幅回拨），等待时钟追上
+                Thread.yield();
+                continue;
+            } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = last + 1;
+            } else {
+                next = (lastTimestamp + 1) << SEQUENCE_BITS;
+            }
+            if (state.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (WORKER_ID_BITS + SEQUENCE_BITS))
+                        | (workerId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
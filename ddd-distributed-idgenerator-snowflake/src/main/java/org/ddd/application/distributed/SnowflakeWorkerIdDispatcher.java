@@ -0,0 +1,122 @@
+package org.ddd.application.distributed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.ddd.share.DomainException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake workerId分配
+ * 基于分布式锁租约占用workerId，并定时续约，每次续约成功后顺延生成器的租约到期时间；
+ * 续约失败或续约未及时完成时生成器立即停止生成（其他实例可能已占用该workerId），重新分配成功后恢复
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Slf4j
+public class SnowflakeWorkerIdDispatcher {
+    private static final String KEY_WORKER_ID_LOCKER = "snowflake_worker_id[%d]";
+
+    private final Locker locker;
+    private final Duration leaseDuration;
+    private final String pwd = UUID.randomUUID().toString();
+    private volatile long workerId = -1;
+    /**
+     * 最近一次占用或续约成功的租约到期时间，以发起请求的时间计算
+     */
+    private volatile long leaseExpireAt = 0L;
+    private ScheduledExecutorService scheduler = null;
+
+    public SnowflakeWorkerIdDispatcher(Locker locker, Duration leaseDuration) {
+        this.locker = locker;
+        this.leaseDuration = leaseDuration;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 占用一个空闲的workerId
+     *
+     * @return
+     */
+    public synchronized long acquire() {
+        int total = (int) SnowflakeIdGenerator.MAX_WORKER_ID + 1;
+        int start = ThreadLocalRandom.current().nextInt(total);
+        for (int i = 0; i < total; i++) {
+            long candidate = (start + i) % total;
+            long requestAt = System.currentTimeMillis();
+            if (locker.acquire(getLockerKey(candidate), pwd, leaseDuration)) {
+                workerId = candidate;
+                leaseExpireAt = requestAt + leaseDuration.toMillis();
+                log.info("Snowflake workerId分配成功 workerId={}", candidate);
+                return candidate;
+            }
+        }
+        throw new DomainException("Snowflake workerId分配失败，无空闲workerId");
+    }
+
+    /**
+     * 定时续约workerId租约
+     *
+     * @param generator
+     */
+    public synchronized void keepAlive(SnowflakeIdGenerator generator) {
+        if (scheduler != null) {
+            return;
+        }
+        generator.setLeaseExpireAt(leaseExpireAt);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "snowflake-worker-id-keepalive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1L, leaseDuration.getSeconds() / 3);
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                renew(generator);
+            } catch (Exception ex) {
+                log.error("Snowflake workerId续约异常 workerId=" + workerId, ex);
+            }
+        }, period, period, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 续约workerId租约
+     * 续约失败时先停止生成器，再重新分配并切换workerId；重新分配失败时生成器保持停止，待下次续约重试
+     *
+     * @param generator
+     */
+    synchronized void renew(SnowflakeIdGenerator generator) {
+        long requestAt = System.currentTimeMillis();
+        if (locker.acquire(getLockerKey(workerId), pwd, leaseDuration)) {
+            leaseExpireAt = requestAt + leaseDuration.toMillis();
+            generator.setLeaseExpireAt(leaseExpireAt);
+            return;
+        }
+        log.warn("Snowflake workerId续约失败，停止生成并重新分配 workerId={}", workerId);
+        generator.suspend();
+        generator.setWorkerId(acquire());
+        generator.setLeaseExpireAt(leaseExpireAt);
+    }
+
+    public synchronized void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (workerId >= 0) {
+            locker.release(getLockerKey(workerId), pwd);
+        }
+    }
+
+    private String getLockerKey(long workerId) {
+        return String.format(KEY_WORKER_ID_LOCKER, workerId);
+    }
+}
@@ -0,0 +1,37 @@
+package org.ddd.domain.repo;
+
+import org.ddd.application.distributed.SnowflakeIdGenerator;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+
+/**
+ * 基于Snowflake的Hibernate主键生成器
+ * 主键在flush前于内存中分配，不依赖数据库自增，插入语句可以JDBC批量执行
+ * <p>
+ * 使用方式：
+ * <pre>
+ * &#64;GeneratedValue(generator = "org.ddd.domain.repo.SnowflakeIdentifierGenerator")
+ * &#64;GenericGenerator(name = "org.ddd.domain.repo.SnowflakeIdentifierGenerator", strategy = "org.ddd.domain.repo.SnowflakeIdentifierGenerator")
+ * </pre>
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+    private static SnowflakeIdGenerator snowflakeIdGenerator = null;
+
+    public static void configure(SnowflakeIdGenerator snowflakeIdGenerator) {
+        SnowflakeIdentifierGenerator.snowflakeIdGenerator = snowflakeIdGenerator;
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor sharedSessionContractImplementor, Object o) throws HibernateException {
+        if (snowflakeIdGenerator == null) {
+            throw new HibernateException("Snowflake ID生成器未初始化");
+        }
+        return snowflakeIdGenerator.nextId();
+    }
+}
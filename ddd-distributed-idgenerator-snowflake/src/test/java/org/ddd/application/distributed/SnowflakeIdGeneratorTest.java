@@ -0,0 +1,149 @@
+package org.ddd.application.distributed;
+
+import junit.framework.TestCase;
+import org.ddd.share.DomainException;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SnowflakeIdGeneratorTest extends TestCase {
+
+    public void testNextIdIsMonotonic() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        long last = generator.nextId();
+        for (int i = 0; i < 100000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            last = id;
+        }
+    }
+
+    public void testNextIdIsUniqueAcrossThreads() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        Set<Long> ids = Collections.synchronizedSet(new HashSet<>());
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(threads.length * 20000, ids.size());
+    }
+
+    public void testSequenceExhaustedBorrowsNextMillis() {
+        ManualClockGenerator generator = new ManualClockGenerator(3, 1000);
+        long last = generator.nextId();
+        for (int i = 0; i < 4095; i++) {
+            long id = generator.nextId();
+            assertTrue(id > last);
+            last = id;
+        }
+        assertEquals(1000, timestamp(last));
+        assertEquals(4095, sequence(last));
+
+        long borrowed = generator.nextId();
+        assertTrue(borrowed > last);
+        assertEquals(1001, timestamp(borrowed));
+        assertEquals(0, sequence(borrowed));
+        assertEquals(3, workerId(borrowed));
+    }
+
+    public void testClockRollbackBorrowsTimestamp() {
+        ManualClockGenerator generator = new ManualClockGenerator(3, 1000);
+        long before = generator.nextId();
+
+        generator.now.set(SnowflakeIdGenerator.EPOCH + 500);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(1000, timestamp(after));
+        assertEquals(sequence(before) + 1, sequence(after));
+    }
+
+    public void testLargeClockRollbackWaitsForClock() {
+        ManualClockGenerator generator = new ManualClockGenerator(3, 5000);
+        long before = generator.nextId();
+
+        // 回拨超过借用上限，时钟每次读取前进1毫秒，直到追上借用上限
+        generator.now.set(SnowflakeIdGenerator.EPOCH + 1000);
+        generator.step = 1;
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertTrue(generator.now.get() - SnowflakeIdGenerator.EPOCH >= 4000);
+    }
+
+    public void testWorkerIdOutOfRange() {
+        try {
+            new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID + 1);
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_WORKER_ID);
+        assertEquals(SnowflakeIdGenerator.MAX_WORKER_ID, workerId(generator.nextId()));
+    }
+
+    public void testStopsWhenLeaseExpiredOrSuspended() {
+        ManualClockGenerator generator = new ManualClockGenerator(1, 1000);
+        generator.setLeaseExpireAt(SnowflakeIdGenerator.EPOCH + 2000);
+        generator.nextId();
+
+        generator.now.set(SnowflakeIdGenerator.EPOCH + 2000);
+        try {
+            generator.nextId();
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+
+        generator.setLeaseExpireAt(SnowflakeIdGenerator.EPOCH + 3000);
+        generator.nextId();
+        generator.suspend();
+        try {
+            generator.nextId();
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+    }
+
+    private static long timestamp(long id) {
+        return id >>> (SnowflakeIdGenerator.WORKER_ID_BITS + SnowflakeIdGenerator.SEQUENCE_BITS);
+    }
+
+    private static long workerId(long id) {
+        return (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_WORKER_ID;
+    }
+
+    private static long sequence(long id) {
+        return id & ((1L << SnowflakeIdGenerator.SEQUENCE_BITS) - 1);
+    }
+
+    static class ManualClockGenerator extends SnowflakeIdGenerator {
+        final AtomicLong now = new AtomicLong();
+        volatile long step = 0;
+
+        ManualClockGenerator(long workerId, long millisSinceEpoch) {
+            super(workerId);
+            now.set(EPOCH + millisSinceEpoch);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return now.getAndAdd(step);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.ddd.application.distributed;
+
+import junit.framework.TestCase;
+import org.ddd.share.DomainException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SnowflakeWorkerIdDispatcherTest extends TestCase {
+    private static final String KEY = "snowflake_worker_id[%d]";
+
+    public void testAcquireSkipsOccupiedWorkerIds() {
+        InMemoryLocker locker = new InMemoryLocker();
+        for (long i = 0; i <= SnowflakeIdGenerator.MAX_WORKER_ID; i++) {
+            if (i != 7) {
+                locker.locks.put(String.format(KEY, i), "other");
+            }
+        }
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+
+        assertEquals(7, dispatcher.acquire());
+        assertEquals(7, dispatcher.getWorkerId());
+    }
+
+    public void testAcquireFailsWhenWorkerIdsExhausted() {
+        InMemoryLocker locker = new InMemoryLocker();
+        for (long i = 0; i <= SnowflakeIdGenerator.MAX_WORKER_ID; i++) {
+            locker.locks.put(String.format(KEY, i), "other");
+        }
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+
+        try {
+            dispatcher.acquire();
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+    }
+
+    public void testRenewKeepsWorkerId() {
+        InMemoryLocker locker = new InMemoryLocker();
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+        long workerId = dispatcher.acquire();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(workerId);
+
+        dispatcher.renew(generator);
+
+        assertEquals(workerId, dispatcher.getWorkerId());
+        assertEquals(workerId, generator.getWorkerId());
+        assertEquals(1, locker.locks.size());
+    }
+
+    public void testRenewLostLeaseSwitchesWorkerId() {
+        InMemoryLocker locker = new InMemoryLocker();
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+        long workerId = dispatcher.acquire();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(workerId);
+        // 租约过期后被其他实例占用
+        locker.locks.put(String.format(KEY, workerId), "other");
+
+        dispatcher.renew(generator);
+
+        assertTrue(generator.getWorkerId() != workerId);
+        assertEquals(dispatcher.getWorkerId(), generator.getWorkerId());
+        assertTrue(generator.getLeaseExpireAt() > System.currentTimeMillis());
+        generator.nextId();
+    }
+
+    public void testRenewLostLeaseStopsGeneratorUntilReacquired() {
+        InMemoryLocker locker = new InMemoryLocker();
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+        long workerId = dispatcher.acquire();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(workerId);
+        // 租约丢失且无空闲workerId
+        for (long i = 0; i <= SnowflakeIdGenerator.MAX_WORKER_ID; i++) {
+            locker.locks.put(String.format(KEY, i), "other");
+        }
+
+        try {
+            dispatcher.renew(generator);
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+        try {
+            generator.nextId();
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+
+        locker.locks.clear();
+        dispatcher.renew(generator);
+        generator.nextId();
+    }
+
+    public void testKeepAliveBindsGeneratorToLease() {
+        InMemoryLocker locker = new InMemoryLocker();
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(dispatcher.acquire());
+        assertEquals(Long.MAX_VALUE, generator.getLeaseExpireAt());
+
+        dispatcher.keepAlive(generator);
+        try {
+            assertTrue(generator.getLeaseExpireAt() <= System.currentTimeMillis() + 60_000L);
+            assertTrue(generator.getLeaseExpireAt() > System.currentTimeMillis());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    public void testShutdownReleasesWorkerId() {
+        InMemoryLocker locker = new InMemoryLocker();
+        SnowflakeWorkerIdDispatcher dispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(60));
+        dispatcher.acquire();
+
+        dispatcher.shutdown();
+
+        assertTrue(locker.locks.isEmpty());
+    }
+
+    static class InMemoryLocker implements Locker {
+        final Map<String, String> locks = new ConcurrentHashMap<>();
+
+        @Override
+        public boolean acquire(String key, String pwd, Duration expireDuration) {
+            return pwd.equals(locks.computeIfAbsent(key, k -> pwd));
+        }
+
+        @Override
+        public boolean release(String key, String pwd) {
+            return locks.remove(key, pwd);
+        }
+    }
+}
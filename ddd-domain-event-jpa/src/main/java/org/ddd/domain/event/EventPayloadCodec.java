@@ -0,0 +1,35 @@
+package org.ddd.domain.event;
+
+/**
+ * 事件体编解码器
+ * 编解码器标识随事件数据一并持久化，解码时按标识选择编解码器；
+ * 自定义编解码器（如CBOR、Kryo）声明为Spring Bean即可注册
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public interface EventPayloadCodec {
+    /**
+     * 编解码器标识，不可包含'+'
+     *
+     * @return
+     */
+    String getId();
+
+    /**
+     * 编码
+     *
+     * @param payload
+     * @return
+     */
+    byte[] encode(Object payload);
+
+    /**
+     * 解码
+     *
+     * @param data
+     * @param payloadClass
+     * @return
+     */
+    Object decode(byte[] data, Class<?> payloadClass);
+}
@@ -0,0 +1,194 @@
+package org.ddd.domain.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.ddd.share.DomainException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 事件体编解码器注册表
+ * 持久化格式：data_codec = 编解码器标识[+gzip]，data 为文本；
+ * 未压缩的json直接存储文本（与历史数据兼容，data_codec为空视为json），其余以Base64存储；
+ * 内置json、smile两种编解码器
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Slf4j
+public class EventPayloadCodecs {
+    public static final String COMPRESSION_GZIP = "gzip";
+    private static final String SEPARATOR = "+";
+
+    private static final Map<String, EventPayloadCodec> CODECS = new ConcurrentHashMap<>();
+    /**
+     * 事件类型缓存，弱引用不阻止类加载器卸载，超出上限时整体清空
+     */
+    private static final int PAYLOAD_CLASS_CACHE_SIZE = 1024;
+    private static final Map<String, WeakReference<Class<?>>> PAYLOAD_CLASSES = new ConcurrentHashMap<>();
+
+    private static volatile String defaultCodecId = JsonEventPayloadCodec.ID;
+    private static volatile int compressThreshold = 0;
+
+    static {
+        register(new JsonEventPayloadCodec());
+        register(new SmileEventPayloadCodec());
+    }
+
+    /**
+     * 注册编解码器
+     *
+     * @param codec
+     */
+    public static void register(EventPayloadCodec codec) {
+        if (codec.getId() == null || codec.getId().contains(SEPARATOR)) {
+            throw new DomainException("事件体编解码器标识非法: " + codec.getId());
+        }
+        CODECS.put(codec.getId(), codec);
+    }
+
+    /**
+     * 配置编码方式
+     *
+     * @param codecId           默认编解码器标识
+     * @param compressThreshold 编码后超过该字节数时gzip压缩，0不压缩
+     */
+    public static void configure(String codecId, int compressThreshold) {
+        if (!CODECS.containsKey(codecId)) {
+            throw new DomainException("事件体编解码器未注册: " + codecId);
+        }
+        EventPayloadCodecs.defaultCodecId = codecId;
+        EventPayloadCodecs.compressThreshold = compressThreshold;
+    }
+
+    /**
+     * 按默认编解码器编码
+     *
+     * @param payload
+     * @return
+     */
+    public static EncodedPayload encode(Object payload) {
+        String codecId = defaultCodecId;
+        byte[] bytes = CODECS.get(codecId).encode(payload);
+        boolean compressed = compressThreshold > 0 && bytes.length > compressThreshold;
+        if (compressed) {
+            bytes = gzip(bytes);
+            codecId = codecId + SEPARATOR + COMPRESSION_GZIP;
+        }
+        String data = !compressed && JsonEventPayloadCodec.ID.equals(codecId)
+                ? new String(bytes, StandardCharsets.UTF_8)
+                : Base64.getEncoder().encodeToString(bytes);
+        return new EncodedPayload(codecId, data);
+    }
+
+    /**
+     * 解码
+     *
+     * @param codecId
+     * @param data
+     * @param dataType
+     * @return
+     */
+    public static Object decode(String codecId, String data, String dataType) {
+        Class<?> payloadClass = resolvePayloadClass(dataType);
+        if (payloadClass == null || data == null) {
+            return null;
+        }
+        if (StringUtils.isBlank(codecId)) {
+            codecId = JsonEventPayloadCodec.ID;
+        }
+        boolean compressed = codecId.endsWith(SEPARATOR + COMPRESSION_GZIP);
+        String id = compressed ? codecId.substring(0, codecId.length() - COMPRESSION_GZIP.length() - 1) : codecId;
+        EventPayloadCodec codec = CODECS.get(id);
+        if (codec == null) {
+            throw new DomainException("事件体编解码器未注册: " + id);
+        }
+        byte[] bytes = !compressed && JsonEventPayloadCodec.ID.equals(id)
+                ? data.getBytes(StandardCharsets.UTF_8)
+                : Base64.getDecoder().decode(data);
+        if (compressed) {
+            bytes = gunzip(bytes);
+        }
+        return codec.decode(bytes, payloadClass);
+    }
+
+    /**
+     * 解析事件类型，缓存Class.forName结果
+     *
+     * @param dataType
+     * @return
+     */
+    public static Class<?> resolvePayloadClass(String dataType) {
+        if (StringUtils.isBlank(dataType)) {
+            return null;
+        }
+        WeakReference<Class<?>> cached = PAYLOAD_CLASSES.get(dataType);
+        Class<?> payloadClass = cached == null ? null : cached.get();
+        if (payloadClass == null) {
+            try {
+                payloadClass = Class.forName(dataType);
+                if (PAYLOAD_CLASSES.size() >= PAYLOAD_CLASS_CACHE_SIZE) {
+                    PAYLOAD_CLASSES.clear();
+                }
+                PAYLOAD_CLASSES.put(dataType, new WeakReference<>(payloadClass));
+            } catch (ClassNotFoundException e) {
+                log.error("事件类型解析错误", e);
+            }
+        }
+        return payloadClass;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new DomainException("事件体压缩失败", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = gzip.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new DomainException("事件体解压失败", e);
+        }
+    }
+
+    /**
+     * 编码结果
+     */
+    public static class EncodedPayload {
+        private final String codecId;
+        private final String data;
+
+        public EncodedPayload(String codecId, String data) {
+            this.codecId = codecId;
+            this.data = data;
+        }
+
+        public String getCodecId() {
+            return codecId;
+        }
+
+        public String getData() {
+            return data;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.ddd.domain.event.persistence.Event;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * @author <template/>
@@ -14,6 +16,7 @@ import java.time.LocalDateTime;
 @Slf4j
 public class EventRecordImpl implements EventRecord {
     private Event event;
+    private final AtomicReference<Consumer<Boolean>> sendCompletion = new AtomicReference<>();
 
     public EventRecordImpl(){
         event = Event.builder().build();
@@ -27,6 +30,14 @@ public class EventRecordImpl implements EventRecord {
         return event;
     }
 
+    /**
+     * 设置发送完成回调，发送成功或失败后仅触发一次
+     * @param sendCompletion 参数为是否发送成功
+     */
+    public void onSendCompleted(Consumer<Boolean> sendCompletion) {
+        this.sendCompletion.set(sendCompletion);
+    }
+
     @Override
     public String toString(){
         return event.toString();
@@ -38,6 +49,11 @@ public class EventRecordImpl implements EventRecord {
         event.init(payload, svcName, now, expireAfter, retryTimes);
     }
 
+    @Override
+    public String getEventUuid() {
+        return event.getEventUuid();
+    }
+
     @Override
     public String getEventTopic() {
         return event.getEventType();
@@ -57,4 +73,12 @@ public class EventRecordImpl implements EventRecord {
     public void confirmDelivered(LocalDateTime now) {
         event.confirmDelivered(now);
     }
+
+    @Override
+    public void completeSend(boolean delivered) {
+        Consumer<Boolean> completion = sendCompletion.getAndSet(null);
+        if (completion != null) {
+            completion.accept(delivered);
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package org.ddd.domain.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 基于JDBC的领域事件消费幂等存储
+ * 表结构见 event.sql `__processed_event`
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcDomainEventIdempotencyStore implements DomainEventIdempotencyStore {
+    private static final int PURGE_BATCH_SIZE = 10000;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean isProcessed(String consumerGroup, String eventUuid) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "select 1 from `__processed_event` where `consumer_group` = ? and `event_uuid` = ? limit 1",
+                Integer.class, consumerGroup, eventUuid);
+        return !rows.isEmpty();
+    }
+
+    @Override
+    public void markProcessed(String consumerGroup, String eventUuid) {
+        jdbcTemplate.update("insert ignore into `__processed_event` (`consumer_group`, `event_uuid`) values (?, ?)",
+                consumerGroup, eventUuid);
+    }
+
+    @Override
+    public void purge(LocalDateTime before) {
+        int deleted;
+        long total = 0;
+        do {
+            deleted = jdbcTemplate.update("delete from `__processed_event` where `db_created_at` < ? limit " + PURGE_BATCH_SIZE, before);
+            total += deleted;
+        } while (deleted >= PURGE_BATCH_SIZE);
+        log.info("消费幂等记录清理 count={}", total);
+    }
+}
@@ -0,0 +1,246 @@
+package org.ddd.domain.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.ddd.domain.event.persistence.Event;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.ddd.share.Constants.*;
+
+/**
+ * 事件表分区管理
+ * 1. 预建未来N个分区（按月或按日，按to_days(db_created_at)范围分区）
+ * 2. 删除超出保留期的分区，可选先交换(EXCHANGE PARTITION)为独立表留存
+ * 3. 校验中继领取语句的执行计划
+ * <p>
+ * 分区名为 p+yyyyMM（按月）或 p+yyyyMMdd（按日），由按月切换为按日时，新分区从现有最大分区上界之后开始创建
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JpaEventPartitionManager {
+    public static final String TABLE_EVENT = "__event";
+    public static final String TABLE_ARCHIVED_EVENT = "__archived_event";
+    private static final String GRANULARITY_DAY = "day";
+    /**
+     * to_days('1970-01-01')
+     */
+    private static final long TO_DAYS_EPOCH_OFFSET = 719528L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value(CONFIG_KEY_4_SVC_NAME)
+    private String svcName = null;
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ADDPARTITION_ENABLE)
+    private boolean enable = false;
+    /**
+     * 分区粒度 month | day
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_GRANULARITY)
+    private String granularity = "month";
+    /**
+     * 预建分区数
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_PRECREATE)
+    private int preCreate = 2;
+    /**
+     * 事件表分区保留天数，仅删除已清空的分区，0不删除
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_EVENTRETENTIONDAYS)
+    private int eventRetentionDays = 0;
+    /**
+     * 归档事件表分区保留天数，0不删除
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_ARCHIVEDRETENTIONDAYS)
+    private int archivedRetentionDays = 0;
+    /**
+     * 删除归档分区前是否交换为独立表留存（表名：__archived_event_分区名）
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_PARTITION_EXCHANGEONDROP)
+    private boolean exchangeOnDrop = false;
+
+    public boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * 分区维护：预建、过期删除
+     */
+    public void maintain() {
+        if (!enable) {
+            return;
+        }
+        Date now = new Date();
+        preCreatePartitions(TABLE_EVENT, now);
+        preCreatePartitions(TABLE_ARCHIVED_EVENT, now);
+        if (eventRetentionDays > 0) {
+            dropPartitions(TABLE_EVENT, DateUtils.addDays(now, -eventRetentionDays), true, false);
+        }
+        if (archivedRetentionDays > 0) {
+            dropPartitions(TABLE_ARCHIVED_EVENT, DateUtils.addDays(now, -archivedRetentionDays), false, exchangeOnDrop);
+        }
+    }
+
+    /**
+     * 预建当前及未来preCreate个周期的分区，已被现有分区覆盖的周期跳过
+     *
+     * @param table
+     * @param now
+     */
+    public void preCreatePartitions(String table, Date now) {
+        List<Map<String, Object>> partitions = listPartitions(table);
+        if (partitions.isEmpty()) {
+            log.warn("分区创建跳过，表未分区 table = {}", table);
+            return;
+        }
+        long maxBound = 0;
+        for (Map<String, Object> partition : partitions) {
+            String description = String.valueOf(partition.get("partition_description"));
+            if (!StringUtils.isNumeric(description)) {
+                log.warn("分区创建跳过，存在MAXVALUE分区 table = {}", table);
+                return;
+            }
+            maxBound = Math.max(maxBound, Long.parseLong(description));
+        }
+        boolean daily = GRANULARITY_DAY.equalsIgnoreCase(granularity);
+        Date periodStart = truncate(now, daily);
+        for (int i = 0; i <= preCreate; i++) {
+            Date periodEnd = daily ? DateUtils.addDays(periodStart, 1) : DateUtils.addMonths(periodStart, 1);
+            long bound = toDays(periodEnd);
+            if (bound > maxBound) {
+                String partitionName = "p" + DateFormatUtils.format(periodStart, daily ? "yyyyMMdd" : "yyyyMM");
+                addPartition(table, partitionName, periodEnd);
+                maxBound = bound;
+            }
+            periodStart = periodEnd;
+        }
+    }
+
+    /**
+     * 删除上界早于threshold的分区
+     *
+     * @param table
+     * @param threshold
+     * @param onlyEmpty 仅删除无数据分区
+     * @param exchange  删除前交换为独立表
+     */
+    public void dropPartitions(String table, Date threshold, boolean onlyEmpty, boolean exchange) {
+        long thresholdDays = toDays(threshold);
+        List<Map<String, Object>> partitions = listPartitions(table);
+        // 至少保留一个分区
+        for (int i = 0; i < partitions.size() - 1; i++) {
+            String partitionName = String.valueOf(partitions.get(i).get("partition_name"));
+            String description = String.valueOf(partitions.get(i).get("partition_description"));
+            if (!StringUtils.isNumeric(description) || Long.parseLong(description) > thresholdDays) {
+                break;
+            }
+            try {
+                if (onlyEmpty) {
+                    Long count = jdbcTemplate.queryForObject("select count(*) from `" + table + "` partition (`" + partitionName + "`)", Long.class);
+                    if (count != null && count > 0) {
+                        log.info("分区删除跳过，分区非空 table = {} partition = {} count = {}", table, partitionName, count);
+                        break;
+                    }
+                }
+                if (exchange) {
+                    exchangePartition(table, partitionName);
+                }
+                jdbcTemplate.execute("alter table `" + table + "` drop partition `" + partitionName + "`");
+                log.info("分区删除 table = {} partition = {}", table, partitionName);
+            } catch (Exception ex) {
+                log.error("分区删除异常 table = " + table + " partition = " + partitionName, ex);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 将分区数据交换至独立表 table_partitionName
+     *
+     * @param table
+     * @param partitionName
+     */
+    private void exchangePartition(String table, String partitionName) {
+        String detachedTable = table + "_" + partitionName;
+        jdbcTemplate.execute("create table `" + detachedTable + "` like `" + table + "`");
+        jdbcTemplate.execute("alter table `" + detachedTable + "` remove partitioning");
+        jdbcTemplate.execute("alter table `" + table + "` exchange partition `" + partitionName + "` with table `" + detachedTable + "` without validation");
+        log.info("分区交换 table = {} partition = {} detachedTable = {}", table, partitionName, detachedTable);
+    }
+
+    private void addPartition(String table, String partitionName, Date periodEnd) {
+        String sql = "alter table `" + table + "` add partition (partition " + partitionName + " values less than (to_days('" + DateFormatUtils.format(periodEnd, "yyyy-MM-dd") + "')) ENGINE=InnoDB)";
+        try {
+            jdbcTemplate.execute(sql);
+            log.info("分区创建 table = {} partition = {}", table, partitionName);
+        } catch (Exception ex) {
+            if (ex.getMessage() == null || !ex.getMessage().contains("Duplicate partition")) {
+                log.error("分区创建异常 table = " + table + " partition = " + partitionName, ex);
+            }
+        }
+    }
+
+    /**
+     * 校验中继领取语句执行计划
+     * 领取条件不含分区键db_created_at，无法裁剪分区，需依赖(svc_name, event_state, next_try_time)索引在各分区内定位；
+     * 分区数过多时各分区均需探查索引，应配合保留期删除控制分区数
+     *
+     * @return 是否命中索引
+     */
+    public boolean verifyRelayPlan() {
+        try {
+            List<Map<String, Object>> plans = jdbcTemplate.queryForList(
+                    "explain select `id` from `" + TABLE_EVENT + "` where `svc_name` = ? and `event_state` in (?, ?) and `next_try_time` < ? order by `next_try_time` limit 1",
+                    svcName, Event.EventState.INIT.getValue(), Event.EventState.DELIVERING.getValue(), new Date());
+            boolean indexed = true;
+            for (Map<String, Object> plan : plans) {
+                Object key = plan.get("key");
+                Object partitions = plan.get("partitions");
+                Object type = plan.get("type");
+                if (key == null || "ALL".equals(type)) {
+                    indexed = false;
+                    log.warn("中继领取语句未命中索引 type = {} partitions = {} rows = {}", type, partitions, plan.get("rows"));
+                } else {
+                    log.info("中继领取语句执行计划 key = {} type = {} partitions = {} rows = {}", key, type, partitions, plan.get("rows"));
+                }
+            }
+            return indexed;
+        } catch (Exception ex) {
+            log.error("中继领取语句执行计划校验异常", ex);
+            return false;
+        }
+    }
+
+    private List<Map<String, Object>> listPartitions(String table) {
+        return jdbcTemplate.queryForList(
+                "select `partition_name`, `partition_description` from information_schema.`partitions` " +
+                        "where `table_schema` = database() and `table_name` = ? and `partition_name` is not null " +
+                        "order by `partition_ordinal_position`", table);
+    }
+
+    /**
+     * 等价于MySQL to_days(date)
+     *
+     * @param date
+     * @return
+     */
+    private static long toDays(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay() + TO_DAYS_EPOCH_OFFSET;
+    }
+
+    private static Date truncate(Date date, boolean daily) {
+        return DateUtils.truncate(date, daily ? Calendar.DATE : Calendar.MONTH);
+    }
+}
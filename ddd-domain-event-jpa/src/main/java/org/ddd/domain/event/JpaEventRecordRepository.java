@@ -6,6 +6,10 @@ import org.ddd.domain.event.persistence.EventRepository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author qiaohe
  * @date 2023/9/9
@@ -26,4 +30,59 @@ public class JpaEventRecordRepository implements EventRecordRepository {
         Event event = eventRepository.saveAndFlush(eventRecordImpl.getEvent());
         eventRecordImpl.resume(event);
     }
+
+    /**
+     * 批量保存，仅flush一次
+     * 配合hibernate.jdbc.batch_size合并为JDBC批量插入；MySQL需在连接串配置rewriteBatchedStatements=true改写为多行insert
+     *
+     * @param eventRecords
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void saveAll(List<EventRecord> eventRecords) {
+        if (eventRecords == null || eventRecords.isEmpty()) {
+            return;
+        }
+        List<Event> events = new ArrayList<>(eventRecords.size());
+        for (EventRecord eventRecord : eventRecords) {
+            events.add(((EventRecordImpl) eventRecord).getEvent());
+        }
+        List<Event> savedEvents = eventRepository.saveAll(events);
+        eventRepository.flush();
+        for (int i = 0; i < eventRecords.size(); i++) {
+            ((EventRecordImpl) eventRecords.get(i)).resume(savedEvents.get(i));
+        }
+    }
+
+    /**
+     * 批量确认发送成功
+     * 已持久化事件以单条 UPDATE ... WHERE id IN (...) 更新状态，未持久化事件逐条保存
+     *
+     * @param eventRecords
+     * @param now
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void confirmDeliveredAll(List<EventRecord> eventRecords, LocalDateTime now) {
+        if (eventRecords == null || eventRecords.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(eventRecords.size());
+        List<EventRecord> transientEventRecords = new ArrayList<>();
+        for (EventRecord eventRecord : eventRecords) {
+            eventRecord.confirmDelivered(now);
+            Long id = ((EventRecordImpl) eventRecord).getEvent().getId();
+            if (id == null) {
+                transientEventRecords.add(eventRecord);
+            } else {
+                ids.add(id);
+            }
+        }
+        if (!ids.isEmpty()) {
+            eventRepository.updateEventState(ids, Event.EventState.DELIVERED);
+        }
+        if (!transientEventRecords.isEmpty()) {
+            saveAll(transientEventRecords);
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package org.ddd.domain.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+
+/**
+ * 事件中继生命周期
+ * 上下文刷新完成（发布者、订阅者及事件元数据均已初始化）后启动中继循环，上下文关闭时先于其他组件停止
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@RequiredArgsConstructor
+public class JpaEventRelayLifecycle implements SmartLifecycle {
+    private final JpaEventScheduleService scheduleService;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final Duration maxLockDuration;
+    private final Duration minIdle;
+    private final Duration maxIdle;
+
+    @Override
+    public void start() {
+        scheduleService.startRelay(batchSize, maxConcurrency, maxLockDuration, minIdle, maxIdle);
+    }
+
+    @Override
+    public void stop() {
+        scheduleService.stopRelay();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduleService.isRelayRunning();
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
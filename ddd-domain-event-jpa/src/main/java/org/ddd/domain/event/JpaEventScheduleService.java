@@ -3,7 +3,7 @@ package org.ddd.domain.event;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.ddd.application.distributed.Locker;
 import org.ddd.domain.event.persistence.*;
@@ -12,16 +12,32 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.ddd.share.Constants.*;
@@ -43,6 +59,7 @@ public class JpaEventScheduleService {
     private final DomainEventPublisher domainEventPublisher;
     private final EventRepository eventRepository;
     private final ArchivedEventJpaRepository archivedEventJpaRepository;
+    private final PlatformTransactionManager transactionManager;
 
     @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_THREADPOOLSIIZE)
     private int threadPoolsize;
@@ -55,9 +72,393 @@ public class JpaEventScheduleService {
         return svcName;
     }
 
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_QUEUECAPACITY)
+    private int queueCapacity;
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_SHUTDOWNAWAITSECONDS)
+    private int shutdownAwaitSeconds;
+
     @PostConstruct
     public void init() {
-        executor = new ThreadPoolExecutor(threadPoolsize, threadPoolsize, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        // 有界队列，队列满时由调用线程（补偿/中继线程）执行，形成背压
+        executor = new ThreadPoolExecutor(threadPoolsize, threadPoolsize, 10, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                (r, e) -> {
+                    if (e.isShutdown()) {
+                        throw new RejectedExecutionException("事件发送线程池已关闭");
+                    }
+                    r.run();
+                });
+    }
+
+    /**
+     * 停止中继循环，并等待已认领事件发送完毕
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopRelay();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownAwaitSeconds, TimeUnit.SECONDS)) {
+                log.warn("事件发送补偿:关闭超时，未发送事件数={}", executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Semaphore inFlightPermits = null;
+    private int inFlightLimit = 0;
+    private final AtomicLong submittedCount = new AtomicLong(0);
+    private final AtomicLong completedCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+
+    private synchronized Semaphore getInFlightPermits(int maxConcurrency) {
+        if (inFlightPermits == null) {
+            inFlightLimit = Math.max(1, maxConcurrency);
+            inFlightPermits = new Semaphore(inFlightLimit);
+        }
+        return inFlightPermits;
+    }
+
+    /**
+     * 在途（已认领未收到发送结果）事件数
+     *
+     * @return
+     */
+    public int getInFlightCount() {
+        Semaphore permits = inFlightPermits;
+        return permits == null ? 0 : inFlightLimit - permits.availablePermits();
+    }
+
+    /**
+     * 发送线程池队列中待执行任务数
+     *
+     * @return
+     */
+    public int getQueueSize() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getCompletedCount() {
+        return completedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private static final List<Event.EventState> CLAIMABLE_EVENT_STATES = Arrays.asList(Event.EventState.INIT, Event.EventState.DELIVERING);
+
+    private final AtomicBoolean compensationRunning = new AtomicBoolean(false);
+
+    /**
+     * 事件发送补偿
+     * 各节点以 SELECT ... FOR UPDATE SKIP LOCKED 在短事务内认领一批到期事件，并推进其下次尝试时间（租约），
+     * 提交后再发送；多节点无需全局锁即可并发补偿；方言不支持 SKIP LOCKED 时认领阶段持有补偿锁（见setClaimLockRequired）
+     * <p>
+     * 顺序事件（@DomainEvent.orderKey）按发送目标+顺序键进入同一通道，在本节点内串行发送；
+     * 多节点同时中继时，同一顺序键的事件可能被不同节点认领，节点间不保证顺序；严格顺序需仅由单节点中继
+     *
+     * @param batchSize       每次认领事件数
+     * @param maxConcurrency  在途事件数上限
+     * @param interval        并发饱和时等待空闲额度的最长时间
+     * @param maxLockDuration 认领事务超时时间
+     * @return 认领发送的事件数
+     */
+    public int compense(int batchSize, int maxConcurrency, Duration interval, Duration maxLockDuration) {
+        if (!compensationRunning.compareAndSet(false, true)) {
+            log.debug("事件发送补偿:上次事件发送补偿仍未结束，跳过");
+            return 0;
+        }
+        Semaphore permits = getInFlightPermits(maxConcurrency);
+        int count = 0;
+        try {
+            while (true) {
+                // 按空闲并发额度认领，饱和时至多等待interval，仍无额度则停止本轮认领
+                int acquired = acquirePermits(permits, batchSize, interval);
+                if (acquired == 0) {
+                    log.debug("事件发送补偿:并发已饱和，停止认领");
+                    return count;
+                }
+                List<Event> events = null;
+                try {
+                    events = claim(acquired, maxLockDuration);
+                } catch (Exception ex) {
+                    permits.release(acquired);
+                    log.error("事件发送补偿:认领异常", ex);
+                    return count;
+                }
+                if (events.size() < acquired) {
+                    permits.release(acquired - events.size());
+                }
+                // 按创建先后提交，同一顺序键的事件依次进入顺序通道
+                events.sort(Comparator.comparing(Event::getCreateAt, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Event::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+                for (Event event : events) {
+                    log.debug("事件发送补偿: {}", event);
+                    EventRecordImpl eventRecordImpl = new EventRecordImpl();
+                    eventRecordImpl.resume(event);
+                    submit(permits, eventRecordImpl);
+                }
+                count += events.size();
+                if (events.size() < acquired) {
+                    return count;
+                }
+            }
+        } finally {
+            compensationRunning.set(false);
+        }
+    }
+
+    private int acquirePermits(Semaphore permits, int batchSize, Duration interval) {
+        try {
+            if (!permits.tryAcquire(interval.toMillis(), TimeUnit.MILLISECONDS)) {
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        int acquired = 1;
+        while (acquired < batchSize && permits.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private void submit(Semaphore permits, EventRecordImpl eventRecordImpl) {
+        submittedCount.incrementAndGet();
+        String orderedLaneKey = getOrderedLaneKey(eventRecordImpl);
+        if (orderedLaneKey != null) {
+            submitOrdered(permits, orderedLaneKey, eventRecordImpl);
+            return;
+        }
+        try {
+            executor.execute(() -> publish(permits, eventRecordImpl));
+        } catch (RejectedExecutionException ex) {
+            reject(permits, eventRecordImpl);
+        }
+    }
+
+    private void publish(Semaphore permits, EventRecordImpl eventRecordImpl) {
+        // 异步发送时publish返回不代表发送完成，在途额度于发送结果回调中释放
+        Event event = eventRecordImpl.getEvent();
+        boolean firstTry = Integer.valueOf(1).equals(event.getTriedTimes()) && event.getCreateAt() != null;
+        eventRecordImpl.onSendCompleted(delivered -> {
+            if (!delivered) {
+                failedCount.incrementAndGet();
+            } else if (firstTry) {
+                recordRelayLatency(Duration.between(event.getCreateAt(), LocalDateTime.now()).toMillis());
+            }
+            completedCount.incrementAndGet();
+            permits.release();
+        });
+        try {
+            domainEventPublisher.publish(eventRecordImpl);
+        } catch (Exception ex) {
+            log.error("事件发送补偿:发送异常", ex);
+            eventRecordImpl.completeSend(false);
+        }
+    }
+
+    private void reject(Semaphore permits, EventRecordImpl eventRecordImpl) {
+        // 线程池已关闭，事件待下次尝试时间到期后重新认领
+        failedCount.incrementAndGet();
+        permits.release();
+        log.warn("事件发送补偿:线程池已关闭，事件延后发送 {}", eventRecordImpl);
+    }
+
+    /**
+     * 顺序事件通道：同一发送目标+顺序键的事件在本节点内串行发送
+     */
+    private final Map<String, Deque<EventRecordImpl>> orderedLanes = new HashMap<>();
+
+    private String getOrderedLaneKey(EventRecordImpl eventRecordImpl) {
+        Object payload;
+        try {
+            payload = eventRecordImpl.getPayload();
+        } catch (Exception ex) {
+            return null;
+        }
+        if (payload == null) {
+            return null;
+        }
+        DomainEventMetadata metadata = DomainEventMetadata.of(payload);
+        String orderKey = metadata.getOrderKey(payload);
+        return orderKey == null ? null : metadata.getDestination() + "#" + orderKey;
+    }
+
+    private void submitOrdered(Semaphore permits, String laneKey, EventRecordImpl eventRecordImpl) {
+        synchronized (orderedLanes) {
+            Deque<EventRecordImpl> lane = orderedLanes.get(laneKey);
+            if (lane != null) {
+                // 通道正在发送，排队等待前序事件完成
+                lane.addLast(eventRecordImpl);
+                return;
+            }
+            lane = new ArrayDeque<>();
+            lane.addLast(eventRecordImpl);
+            orderedLanes.put(laneKey, lane);
+        }
+        try {
+            executor.execute(() -> drainOrderedLane(permits, laneKey));
+        } catch (RejectedExecutionException ex) {
+            Deque<EventRecordImpl> lane;
+            synchronized (orderedLanes) {
+                lane = orderedLanes.remove(laneKey);
+            }
+            if (lane != null) {
+                lane.forEach(e -> reject(permits, e));
+            }
+        }
+    }
+
+    private void drainOrderedLane(Semaphore permits, String laneKey) {
+        while (true) {
+            EventRecordImpl eventRecordImpl;
+            synchronized (orderedLanes) {
+                Deque<EventRecordImpl> lane = orderedLanes.get(laneKey);
+                eventRecordImpl = lane == null ? null : lane.pollFirst();
+                if (eventRecordImpl == null) {
+                    orderedLanes.remove(laneKey);
+                    return;
+                }
+            }
+            publish(permits, eventRecordImpl);
+        }
+    }
+
+    private volatile Thread relayThread = null;
+    private volatile boolean relayRunning = false;
+    private final Object relaySignal = new Object();
+    private boolean relayWakeupRequested = false;
+
+    /**
+     * 启动事件中继循环
+     * 持续认领发送到期事件；无事件时空闲等待，等待时长自minIdle起指数增长至maxIdle；
+     * 本地事务提交后调用wakeup立即唤醒
+     *
+     * @param batchSize
+     * @param maxConcurrency
+     * @param maxLockDuration
+     * @param minIdle
+     * @param maxIdle
+     */
+    public synchronized void startRelay(int batchSize, int maxConcurrency, Duration maxLockDuration, Duration minIdle, Duration maxIdle) {
+        if (relayThread != null) {
+            return;
+        }
+        relayRunning = true;
+        relayThread = new Thread(() -> {
+            long minIdleMillis = Math.max(1L, minIdle.toMillis());
+            long maxIdleMillis = Math.max(minIdleMillis, maxIdle.toMillis());
+            long idleMillis = minIdleMillis;
+            while (relayRunning) {
+                int count = 0;
+                try {
+                    count = compense(batchSize, maxConcurrency, minIdle, maxLockDuration);
+                } catch (Exception ex) {
+                    log.error("事件中继:异常", ex);
+                }
+                if (count > 0) {
+                    idleMillis = minIdleMillis;
+                    continue;
+                }
+                if (awaitRelayWakeup(idleMillis)) {
+                    idleMillis = minIdleMillis;
+                } else {
+                    idleMillis = Math.min(idleMillis * 2, maxIdleMillis);
+                }
+            }
+        }, "event-relay");
+        relayThread.setDaemon(true);
+        relayThread.start();
+    }
+
+    /**
+     * 停止事件中继循环
+     */
+    public synchronized void stopRelay() {
+        Thread thread = relayThread;
+        if (thread == null) {
+            return;
+        }
+        relayRunning = false;
+        wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        relayThread = null;
+    }
+
+    public boolean isRelayRunning() {
+        return relayRunning;
+    }
+
+    /**
+     * 唤醒事件中继循环
+     */
+    public void wakeup() {
+        synchronized (relaySignal) {
+            relayWakeupRequested = true;
+            relaySignal.notifyAll();
+        }
+    }
+
+    private boolean awaitRelayWakeup(long millis) {
+        synchronized (relaySignal) {
+            try {
+                if (!relayWakeupRequested) {
+                    relaySignal.wait(millis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                relayRunning = false;
+            }
+            boolean wakeupRequested = relayWakeupRequested;
+            relayWakeupRequested = false;
+            return wakeupRequested;
+        }
+    }
+
+    private static final int RELAY_LATENCY_SAMPLE_SIZE = 1024;
+    private final long[] relayLatencySamples = new long[RELAY_LATENCY_SAMPLE_SIZE];
+    private long relayLatencySampleCount = 0;
+
+    private synchronized void recordRelayLatency(long latencyMillis) {
+        relayLatencySamples[(int) (relayLatencySampleCount % RELAY_LATENCY_SAMPLE_SIZE)] = latencyMillis;
+        relayLatencySampleCount++;
+    }
+
+    /**
+     * 最近事件首次发送延迟（事件创建至收到发送成功确认）分位数，毫秒；无样本返回-1
+     *
+     * @param percentile 0~100
+     * @return
+     */
+    public synchronized long getRelayLatencyPercentileMillis(double percentile) {
+        int size = (int) Math.min(relayLatencySampleCount, RELAY_LATENCY_SAMPLE_SIZE);
+        if (size == 0) {
+            return -1;
+        }
+        long[] samples = Arrays.copyOf(relayLatencySamples, size);
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return samples[Math.min(size - 1, Math.max(0, index))];
+    }
+
+    public long getRelayLatencyP50Millis() {
+        return getRelayLatencyPercentileMillis(50);
+    }
+
+    public long getRelayLatencyP99Millis() {
+        return getRelayLatencyPercentileMillis(99);
     }
 
     @Value(KEY_COMPENSATION_LOCKER)
@@ -67,63 +468,61 @@ public class JpaEventScheduleService {
         return compensationLockerKey;
     }
 
-    private boolean compensationRunning = false;
+    private volatile boolean claimLockRequired = false;
 
-    public void compense(int batchSize, int maxConcurrency, Duration interval, Duration maxLockDuration) {
-        if (compensationRunning) {
-            log.info("事件发送补偿:上次事件发送补偿仍未结束，跳过");
-            return;
-        }
-        compensationRunning = true;
+    /**
+     * 数据库方言不支持 SKIP LOCKED 时，认领事务需持有补偿锁，避免多节点阻塞在同一批行上
+     *
+     * @param claimLockRequired
+     */
+    public void setClaimLockRequired(boolean claimLockRequired) {
+        this.claimLockRequired = claimLockRequired;
+    }
 
+    /**
+     * 认领到期事件
+     * 锁定、推进状态与下次尝试时间在同一事务中完成，返回认领成功（待发送）的事件
+     *
+     * @param batchSize
+     * @param maxLockDuration
+     * @return
+     */
+    protected List<Event> claim(int batchSize, Duration maxLockDuration) {
+        if (!claimLockRequired) {
+            return claimDue(batchSize, maxLockDuration);
+        }
         String pwd = RandomStringUtils.random(8, true, true);
-        String svcName = getSvcName();
         String lockerKey = getCompensationLockerKey();
+        if (!locker.acquire(lockerKey, pwd, maxLockDuration)) {
+            return new ArrayList<>();
+        }
         try {
-            boolean noneEvent = false;
+            return claimDue(batchSize, maxLockDuration);
+        } finally {
+            locker.release(lockerKey, pwd);
+        }
+    }
+
+    private List<Event> claimDue(int batchSize, Duration maxLockDuration) {
+        TransactionTemplate transactionTemplate = newTransactionTemplate((int) maxLockDuration.getSeconds());
+        while (true) {
             LocalDateTime now = LocalDateTime.now();
-            while (!noneEvent) {
-                try {
-                    if (!locker.acquire(lockerKey, pwd, maxLockDuration)) {
-                        return;
-                    }
-                    Page<Event> events = eventRepository.findAll((root, cq, cb) -> {
-                        cq.where(cb.or(
-                                cb.and(
-                                        // 【初始状态】
-                                        cb.equal(root.get(Event.F_EVENT_STATE), Event.EventState.INIT),
-                                        cb.lessThan(root.get(Event.F_NEXT_TRY_TIME), now.plusSeconds(0)),
-                                        cb.equal(root.get(Event.F_SVC_NAME), svcName)
-                                ), cb.and(
-                                        // 【未知状态】
-                                        cb.equal(root.get(Event.F_EVENT_STATE), Event.EventState.DELIVERING),
-                                        cb.lessThan(root.get(Event.F_NEXT_TRY_TIME), now.plusSeconds(0)),
-                                        cb.equal(root.get(Event.F_SVC_NAME), svcName)
-                                )));
-                        return null;
-                    }, PageRequest.of(0, batchSize, Sort.by(Sort.Direction.ASC, Event.F_CREATE_AT)));
-                    if (!events.hasContent()) {
-                        noneEvent = true;
-                        continue;
+            List<Event> claimedEvents = new ArrayList<>(batchSize);
+            int total = transactionTemplate.execute(status -> {
+                List<Event> events = eventRepository.findAllForClaim(getSvcName(), CLAIMABLE_EVENT_STATES, now, PageRequest.of(0, batchSize));
+                for (Event event : events) {
+                    event.holdState4Delivery(now);
+                    if (event.isDelivering(now)) {
+                        claimedEvents.add(event);
                     }
-                    for (Event event : events.getContent()) {
-                        log.info("事件发送补偿: {}", event.toString());
-                        event.holdState4Delivery(now);
-                        event = eventRepository.saveAndFlush(event);
-                        if(event.isDelivering(now)) {
-                            EventRecordImpl eventRecordImpl = new EventRecordImpl();
-                            eventRecordImpl.resume(event);
-                            executor.submit(() -> domainEventPublisher.publish(eventRecordImpl));
-                        }
-                    }
-                } catch (Exception ex) {
-                    log.error("事件发送补偿:异常失败", ex);
-                } finally {
-                    locker.release(lockerKey, pwd);
                 }
+                eventRepository.saveAll(events);
+                return events.size();
+            });
+            // 整批均已失效（过期、超出重试次数）时状态已更新，继续认领下一批
+            if (total < batchSize || !claimedEvents.isEmpty()) {
+                return claimedEvents;
             }
-        } finally {
-            compensationRunning = false;
         }
     }
 
@@ -134,20 +533,60 @@ public class JpaEventScheduleService {
         return archiveLockerKey;
     }
 
+    /**
+     * 归档模式
+     * entity：逐批加载实体迁移；
+     * range：按主键区间以 INSERT ... SELECT / DELETE 集合迁移，进度记录于检查点表，中断后从检查点继续；
+     * partition：先整分区迁移（INSERT ... SELECT 后 TRUNCATE PARTITION，仅限分区内记录均属本服务），剩余记录再按range模式迁移
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_MODE)
+    private String archiveMode = "entity";
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_CHUNKSIZE)
+    private int archiveChunkSize = 10000;
+    /**
+     * range模式安全延迟（秒）：仅处理入库早于该时长的记录，需大于最长事务时长与各节点时钟偏差之和，
+     * 避免主键较小但尚未提交的记录在检查点越过后被遗漏
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ARCHIVE_SAFETYLAGSECONDS)
+    private int archiveSafetyLagSeconds = 600;
+
     /**
      * 本地事件库归档
      */
     public void archive(int expireDays, int batchSize, Duration maxLockDuration) {
         String pwd = RandomStringUtils.random(8, true, true);
-        String svcName = getSvcName();
         String lockerKey = getArchiveLockerKey();
 
         if (!locker.acquire(lockerKey, pwd, maxLockDuration)) {
             return;
         }
-        log.info("事件归档");
+        log.info("事件归档 mode={}", archiveMode);
+        try {
+            if (ARCHIVE_MODE_PARTITION.equalsIgnoreCase(archiveMode)) {
+                archiveByPartition(expireDays);
+                archiveByIdRange(expireDays, archiveChunkSize);
+            } else if (ARCHIVE_MODE_RANGE.equalsIgnoreCase(archiveMode)) {
+                archiveByIdRange(expireDays, archiveChunkSize);
+            } else {
+                archiveByEntity(expireDays, batchSize);
+            }
+        } finally {
+            locker.release(lockerKey, pwd);
+        }
+    }
+
+    private static final String ARCHIVE_MODE_RANGE = "range";
+    private static final String ARCHIVE_MODE_PARTITION = "partition";
+    private static final String EVENT_COLUMNS = "`id`, `event_uuid`, `svc_name`, `event_type`, `data`, `data_type`, `data_codec`, `event_state`, `expire_at`, `create_at`, `last_try_time`, `next_try_time`, `tried_times`, `try_times`, `version`, `db_created_at`, `db_updated_at`";
+    private static final String ARCHIVABLE_CONDITION = "`event_state` in ("
+            + Event.EventState.CANCEL.getValue() + ", "
+            + Event.EventState.EXPIRED.getValue() + ", "
+            + Event.EventState.FAILED.getValue() + ", "
+            + Event.EventState.DELIVERED.getValue() + ") and `expire_at` < ?";
 
-        Date now = new Date();
+    private void archiveByEntity(int expireDays, int batchSize) {
+        String svcName = getSvcName();
+        Date threshold = archiveThreshold(expireDays);
         int failCount = 0;
         while (true) {
             try {
@@ -161,7 +600,7 @@ public class JpaEventScheduleService {
                                             cb.equal(root.get(Event.F_EVENT_STATE), Event.EventState.FAILED),
                                             cb.equal(root.get(Event.F_EVENT_STATE), Event.EventState.DELIVERED)
                                     ),
-                                    cb.lessThan(root.get(Event.F_EXPIRE_AT), DateUtils.addDays(now, expireDays)),
+                                    cb.lessThan(root.get(Event.F_EXPIRE_AT), threshold),
                                     cb.equal(root.get(Event.F_SVC_NAME), svcName)
                             ));
                     return null;
@@ -176,6 +615,7 @@ public class JpaEventScheduleService {
                         .eventType(e.getEventType())
                         .data(e.getData())
                         .dataType(e.getDataType())
+                        .dataCodec(e.getDataCodec())
                         .createAt(e.getCreateAt())
                         .expireAt(e.getExpireAt())
                         .eventState(e.getEventState())
@@ -186,7 +626,10 @@ public class JpaEventScheduleService {
                         .version(e.getVersion())
                         .build()
                 ).collect(Collectors.toList());
-                migrate(events.toList(), archivedEvents);
+                newTransactionTemplate(0).execute(status -> {
+                    migrate(events.toList(), archivedEvents);
+                    return null;
+                });
             } catch (Exception ex) {
                 failCount++;
                 log.error("事件归档:失败", ex);
@@ -196,7 +639,6 @@ public class JpaEventScheduleService {
                 }
             }
         }
-        locker.release(lockerKey, pwd);
     }
 
     @Transactional
@@ -205,32 +647,189 @@ public class JpaEventScheduleService {
         eventRepository.deleteInBatch(events);
     }
 
-    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ADDPARTITION_ENABLE)
-    private boolean enableAddPartition;
-    public void addPartition() {
-        if(enableAddPartition) {
-            Date now = new Date();
-            addPartition("__event", DateUtils.addMonths(now, 1));
-            addPartition("__archived_event", DateUtils.addMonths(now, 1));
+    /**
+     * 归档期限，各归档模式共用同一可归档条件（ARCHIVABLE_CONDITION）与期限
+     *
+     * @param expireDays
+     * @return
+     */
+    private static Date archiveThreshold(int expireDays) {
+        return DateUtils.addDays(new Date(), expireDays);
+    }
+
+    /**
+     * 按主键区间集合迁移
+     * 先迁移检查点之前此前保留、现已可归档的记录，再从检查点开始按主键顺序逐区间迁移；
+     * 每个区间在同一事务内完成检查点加锁读取、INSERT ... SELECT、DELETE 及检查点推进，
+     * 区间内尚不可归档的记录保留原位，检查点越过保留记录继续推进，保留记录由后续归档在检查点之前补迁；
+     * 扫描遇到入库时间晚于安全延迟的记录即止
+     *
+     * @param expireDays
+     * @param chunkSize
+     */
+    protected void archiveByIdRange(int expireDays, int chunkSize) {
+        String svcName = getSvcName();
+        Date threshold = archiveThreshold(expireDays);
+        TransactionTemplate transactionTemplate = newTransactionTemplate(0);
+        long archived = archiveChunks(transactionTemplate, () -> archiveRetainedChunk(svcName, threshold, chunkSize));
+        archived += archiveChunks(transactionTemplate, () -> archiveIdRangeChunk(svcName, threshold, chunkSize));
+        log.info("事件归档:区间迁移完成 count={}", archived);
+    }
+
+    private long archiveChunks(TransactionTemplate transactionTemplate, Supplier<Integer> chunk) {
+        int failCount = 0;
+        long archived = 0;
+        while (true) {
+            try {
+                Integer moved = transactionTemplate.execute(status -> chunk.get());
+                if (moved == null || moved < 0) {
+                    break;
+                }
+                archived += moved;
+            } catch (Exception ex) {
+                failCount++;
+                log.error("事件归档:失败", ex);
+                if (failCount >= 3) {
+                    log.info("事件归档:累计3次异常退出任务");
+                    break;
+                }
+            }
         }
+        return archived;
     }
 
-    private final JdbcTemplate jdbcTemplate;
+    /**
+     * 迁移检查点之前已可归档的保留记录
+     * 检查点之前仅剩保留记录，扫描量与保留记录数相当
+     *
+     * @return 迁移记录数，-1表示已无可迁移记录
+     */
+    private Integer archiveRetainedChunk(String svcName, Date threshold, int chunkSize) {
+        long checkpoint = lockArchiveCheckpoint(svcName);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "select `id` from `__event` where `id` <= ? and `svc_name` = ? and " + ARCHIVABLE_CONDITION + " order by `id` limit ?",
+                Long.class, checkpoint, svcName, threshold, chunkSize);
+        if (ids.isEmpty()) {
+            return -1;
+        }
+        // 按主键顺序取前chunkSize条，区间内可归档记录即为所取记录
+        long fromId = ids.get(0) - 1;
+        long toId = ids.get(ids.size() - 1);
+        int moved = moveArchivable(svcName, threshold, fromId, toId);
+        return ids.size() < chunkSize ? -1 : moved;
+    }
 
     /**
-     * 创建date日期所在月下个月的分区
+     * 迁移检查点之后的一个主键区间
      *
-     * @param table
-     * @param date
+     * @return 迁移记录数，-1表示本次归档结束
      */
-    private void addPartition(String table, Date date) {
-        String sql = "alter table `" + table + "` add partition (partition p" + DateFormatUtils.format(date, "yyyyMM") + " values less than (to_days('" + DateFormatUtils.format(DateUtils.addMonths(date, 1), "yyyy-MM") + "-01')) ENGINE=InnoDB)";
-        try {
-            jdbcTemplate.execute(sql);
-        } catch (Exception ex) {
-            if (!ex.getMessage().contains("Duplicate partition")) {
-                log.error("分区创建异常 table = " + table + " partition = p" + DateFormatUtils.format(date, "yyyyMM"), ex);
+    private Integer archiveIdRangeChunk(String svcName, Date threshold, int chunkSize) {
+        long fromId = lockArchiveCheckpoint(svcName);
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select `id`, `db_created_at` >= date_sub(now(), interval ? second) as `recent` from `__event` where `id` > ? and `svc_name` = ? order by `id` limit ?",
+                archiveSafetyLagSeconds, fromId, svcName, chunkSize);
+        if (rows.isEmpty()) {
+            return -1;
+        }
+        boolean finished = rows.size() < chunkSize;
+        long toId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+        for (Map<String, Object> row : rows) {
+            Object recent = row.get("recent");
+            if (recent != null && ((Number) recent).intValue() != 0) {
+                // 安全延迟内的记录及其后的记录本次不处理
+                toId = ((Number) row.get("id")).longValue() - 1;
+                finished = true;
+                break;
             }
         }
+        if (toId <= fromId) {
+            return -1;
+        }
+        int moved = moveArchivable(svcName, threshold, fromId, toId);
+        saveArchiveCheckpoint(svcName, toId);
+        return finished ? -1 : moved;
+    }
+
+    private int moveArchivable(String svcName, Date threshold, long fromId, long toId) {
+        jdbcTemplate.update("insert ignore into `__archived_event` (" + EVENT_COLUMNS + ") select " + EVENT_COLUMNS
+                        + " from `__event` where `id` > ? and `id` <= ? and `svc_name` = ? and " + ARCHIVABLE_CONDITION,
+                fromId, toId, svcName, threshold);
+        return jdbcTemplate.update("delete from `__event` where `id` > ? and `id` <= ? and `svc_name` = ? and " + ARCHIVABLE_CONDITION,
+                fromId, toId, svcName, threshold);
+    }
+
+    /**
+     * 加锁读取检查点，须在事务内调用，锁持有至事务结束
+     *
+     * @param svcName
+     * @return
+     */
+    private long lockArchiveCheckpoint(String svcName) {
+        List<Long> lastIds = jdbcTemplate.queryForList(
+                "select `last_id` from `__event_archive_checkpoint` where `svc_name` = ? for update",
+                Long.class, svcName);
+        return lastIds.isEmpty() || lastIds.get(0) == null ? 0L : lastIds.get(0);
     }
+
+    private void saveArchiveCheckpoint(String svcName, long lastId) {
+        jdbcTemplate.update("insert into `__event_archive_checkpoint` (`svc_name`, `last_id`) values (?, ?) on duplicate key update `last_id` = values(`last_id`)",
+                svcName, lastId);
+    }
+
+    /**
+     * 整分区迁移
+     * 仅处理已关闭（分区上界早于安全延迟，不再有新记录写入）的分区；分区内全部记录属于本服务且满足可归档条件时，
+     * INSERT IGNORE ... SELECT 整分区后 TRUNCATE PARTITION；
+     * TRUNCATE为DDL无法与插入同事务，中断后重跑依赖INSERT IGNORE幂等；
+     * 分区不区分服务，多个服务共用事件表时分区内存在其他服务记录即跳过，由range模式逐条迁移
+     *
+     * @param expireDays
+     */
+    protected void archiveByPartition(int expireDays) {
+        String svcName = getSvcName();
+        Date threshold = archiveThreshold(expireDays);
+        Long closedDays = jdbcTemplate.queryForObject("select to_days(date_sub(now(), interval ? second))", Long.class, archiveSafetyLagSeconds);
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(
+                "select `partition_name`, `partition_description` from information_schema.`partitions` " +
+                        "where `table_schema` = database() and `table_name` = '__event' and `partition_name` is not null " +
+                        "order by `partition_ordinal_position`");
+        for (Map<String, Object> partition : partitions) {
+            String partitionName = String.valueOf(partition.get("partition_name"));
+            String description = String.valueOf(partition.get("partition_description"));
+            if (!StringUtils.isNumeric(description) || Long.parseLong(description) > closedDays) {
+                break;
+            }
+            try {
+                Long total = jdbcTemplate.queryForObject("select count(*) from `__event` partition (`" + partitionName + "`)", Long.class);
+                if (total == null || total == 0) {
+                    continue;
+                }
+                Long pending = jdbcTemplate.queryForObject("select count(*) from `__event` partition (`" + partitionName + "`) where not (`svc_name` = ? and " + ARCHIVABLE_CONDITION + ")",
+                        Long.class, svcName, threshold);
+                if (pending != null && pending > 0) {
+                    log.info("事件归档:分区存在不可归档或其他服务记录，跳过整分区迁移 partition={} count={}", partitionName, pending);
+                    break;
+                }
+                jdbcTemplate.update("insert ignore into `__archived_event` (" + EVENT_COLUMNS + ") select " + EVENT_COLUMNS
+                        + " from `__event` partition (`" + partitionName + "`)");
+                jdbcTemplate.execute("alter table `__event` truncate partition `" + partitionName + "`");
+                log.info("事件归档:整分区迁移完成 partition={} count={}", partitionName, total);
+            } catch (Exception ex) {
+                log.error("事件归档:整分区迁移失败 partition=" + partitionName, ex);
+                break;
+            }
+        }
+    }
+
+    private TransactionTemplate newTransactionTemplate(int timeoutSeconds) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (timeoutSeconds > 0) {
+            transactionTemplate.setTimeout(timeoutSeconds);
+        }
+        return transactionTemplate;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
 }
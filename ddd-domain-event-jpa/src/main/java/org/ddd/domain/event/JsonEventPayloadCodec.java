@@ -0,0 +1,28 @@
+package org.ddd.domain.event;
+
+import com.alibaba.fastjson.JSON;
+
+/**
+ * JSON事件体编解码器（默认）
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JsonEventPayloadCodec implements EventPayloadCodec {
+    public static final String ID = "json";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        return JSON.toJSONBytes(payload);
+    }
+
+    @Override
+    public Object decode(byte[] data, Class<?> payloadClass) {
+        return JSON.parseObject(data, payloadClass);
+    }
+}
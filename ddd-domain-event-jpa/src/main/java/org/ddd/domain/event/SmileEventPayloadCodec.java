@@ -0,0 +1,47 @@
+package org.ddd.domain.event;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.ddd.share.DomainException;
+
+import java.io.IOException;
+
+/**
+ * Smile（二进制JSON）事件体编解码器
+ * 字段名与短字符串去重引用，重复结构较多的事件体积小于文本json；存储为Base64
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class SmileEventPayloadCodec implements EventPayloadCodec {
+    public static final String ID = "smile";
+
+    private final ObjectMapper objectMapper = new ObjectMapper(new SmileFactory())
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (IOException e) {
+            throw new DomainException("事件体Smile编码失败", e);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] data, Class<?> payloadClass) {
+        try {
+            return objectMapper.readValue(data, payloadClass);
+        } catch (IOException e) {
+            throw new DomainException("事件体Smile解码失败", e);
+        }
+    }
+}
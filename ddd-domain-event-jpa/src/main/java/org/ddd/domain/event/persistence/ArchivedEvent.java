@@ -39,8 +39,10 @@ public class ArchivedEvent {
         return JSON.toJSONString(this);
     }
 
+    /**
+     * 沿用原事件主键
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "`id`")
     private Long id;
 
@@ -79,6 +81,13 @@ public class ArchivedEvent {
     @Column(name = "`data_type`")
     private String dataType;
 
+    /**
+     * 事件数据编解码器
+     * varchar(32)
+     */
+    @Column(name = "`data_codec`")
+    private String dataCodec;
+
     /**
      * 创建时间
      * datetime
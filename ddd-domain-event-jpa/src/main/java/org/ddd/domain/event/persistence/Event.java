@@ -8,11 +8,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.ddd.domain.event.annotation.DomainEvent;
+import org.ddd.domain.event.DomainEventMetadata;
+import org.ddd.domain.event.EventPayloadCodecs;
 import org.ddd.share.DomainException;
-import org.ddd.share.annotation.Retry;
 import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.time.Duration;
@@ -42,6 +43,7 @@ public class Event {
     public static final String F_EVENT_TYPE = "eventType";
     public static final String F_DATA = "data";
     public static final String F_DATA_TYPE = "dataType";
+    public static final String F_DATA_CODEC = "dataCodec";
     public static final String F_CREATE_AT = "createAt";
     public static final String F_EXPIRE_AT = "expireAt";
     public static final String F_EVENT_STATE = "eventState";
@@ -70,13 +72,7 @@ public class Event {
             return this.payload;
         }
         if (StringUtils.isNotBlank(dataType)) {
-            Class dataClass = null;
-            try {
-                dataClass = Class.forName(dataType);
-            } catch (ClassNotFoundException e) {
-                log.error("事件类型解析错误", e);
-            }
-            this.payload = JSON.parseObject(data, dataClass);
+            this.payload = EventPayloadCodecs.decode(dataCodec, data, dataType);
         }
         return this.payload;
     }
@@ -126,28 +122,25 @@ public class Event {
             throw new DomainException("事件体不能为null");
         }
         this.payload = payload;
-        this.data = JSON.toJSONString(payload);
+        EventPayloadCodecs.EncodedPayload encodedPayload = EventPayloadCodecs.encode(payload);
+        this.data = encodedPayload.getData();
+        this.dataCodec = encodedPayload.getCodecId();
         this.dataType = payload.getClass().getName();
-        DomainEvent domainEvent = payload == null
-                ? null
-                : payload.getClass().getAnnotation(DomainEvent.class);
-        if (domainEvent != null) {
-            this.eventType = domainEvent.value();
+        DomainEventMetadata metadata = DomainEventMetadata.of(payload);
+        if (metadata.getEventType() != null) {
+            this.eventType = metadata.getEventType();
         }
-        Retry retry = payload == null
-                ? null
-                : payload.getClass().getAnnotation(Retry.class);
-        if (retry != null) {
-            this.tryTimes = retry.retryTimes();
-            this.expireAt = this.createAt.plusMinutes(retry.expireAfter());
+        if (metadata.isRetryConfigured()) {
+            this.tryTimes = metadata.getRetryTimes();
+            this.expireAt = this.createAt.plusMinutes(metadata.getExpireAfterMinutes());
         }
     }
 
     private LocalDateTime calculateNextTryTime(LocalDateTime now) {
-        Retry retry = getPayload() == null
-                ? null
-                : getPayload().getClass().getAnnotation(Retry.class);
-        if (Objects.isNull(retry) || retry.retryIntervals().length == 0) {
+        int retryInterval = getPayload() == null
+                ? -1
+                : DomainEventMetadata.of(getPayload()).getRetryInterval(this.triedTimes - 1);
+        if (retryInterval < 0) {
             if (this.triedTimes <= 10) {
                 return now.plusMinutes(1);
             } else if (this.triedTimes <= 20) {
@@ -156,13 +149,7 @@ public class Event {
                 return now.plusMinutes(10);
             }
         }
-        int index = this.triedTimes - 1;
-        if (index >= retry.retryIntervals().length) {
-            index = retry.retryIntervals().length - 1;
-        } else if (index < 0) {
-            index = 0;
-        }
-        return now.plusMinutes(retry.retryIntervals()[index]);
+        return now.plusMinutes(retryInterval);
     }
 
     @Override
@@ -170,8 +157,12 @@ public class Event {
         return JSON.toJSONString(this);
     }
 
+    /**
+     * 主键默认数据库自增，生成策略可替换，见{@link EventIdentifierGenerator}
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = EventIdentifierGenerator.STRATEGY)
+    @GenericGenerator(name = EventIdentifierGenerator.STRATEGY, strategy = EventIdentifierGenerator.STRATEGY)
     @Column(name = "`id`")
     private Long id;
 
@@ -210,6 +201,13 @@ public class Event {
     @Column(name = "`data_type`")
     private String dataType;
 
+    /**
+     * 事件数据编解码器
+     * varchar(32)
+     */
+    @Column(name = "`data_codec`")
+    private String dataCodec;
+
     /**
      * 创建时间
      * datetime
@@ -0,0 +1,16 @@
+package org.ddd.domain.event.persistence;
+
+import org.hibernate.id.IdentityGenerator;
+
+/**
+ * 事件主键生成器
+ * 默认使用数据库自增(IDENTITY)；
+ * 可通过Hibernate配置hibernate.identifier_generator_strategy_provider将策略名{@link #STRATEGY}映射为内存分配主键的生成器(如Snowflake)，
+ * 使事件插入可JDBC批量执行
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class EventIdentifierGenerator extends IdentityGenerator {
+    public static final String STRATEGY = "org.ddd.domain.event.persistence.EventIdentifierGenerator";
+}
@@ -1,11 +1,49 @@
 package org.ddd.domain.event.persistence;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * @author qiaohe
  * @date 2023/8/15
  */
 public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+
+    /**
+     * 锁定待发送事件（SELECT ... FOR UPDATE SKIP LOCKED）
+     * 已被其他节点锁定的行直接跳过，多节点可并发认领；需在事务内调用
+     * 注意：SKIP LOCKED需数据库及方言支持（如MySQL8Dialect），不支持时退化为阻塞的FOR UPDATE
+     *
+     * @param svcName
+     * @param eventStates
+     * @param now
+     * @param pageable
+     * @return
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({@QueryHint(name = "javax.persistence.lock.timeout", value = "-2")})
+    @Query("select e from Event e where e.svcName = :svcName and e.eventState in :eventStates and e.nextTryTime < :now order by e.nextTryTime")
+    List<Event> findAllForClaim(@Param("svcName") String svcName, @Param("eventStates") List<Event.EventState> eventStates, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * 批量更新事件状态，版本号同步递增使持有旧版本实体的并发更新失败
+     *
+     * @param ids
+     * @param eventState
+     * @return
+     */
+    @Modifying
+    @Query("update Event e set e.eventState = :eventState, e.version = e.version + 1 where e.id in :ids")
+    int updateEventState(@Param("ids") List<Long> ids, @Param("eventState") Event.EventState eventState);
 }
@@ -5,6 +5,7 @@ CREATE TABLE `__event` (
                            `event_type` varchar(255) NOT NULL DEFAULT '',
                            `data` text,
                            `data_type` varchar(255) NOT NULL DEFAULT '',
+                           `data_codec` varchar(32) NOT NULL DEFAULT '',
                            `event_state` int(11) NOT NULL DEFAULT '0',
                            `expire_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
                            `create_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
@@ -21,6 +22,7 @@ CREATE TABLE `__event` (
                                        ),
                            KEY `idx_event_uuid` (`event_uuid`),
                            KEY `idx_next_try_time` (`next_try_time`,`event_type`,`svc_name`),
+                           KEY `idx_svc_name_event_state_next_try_time` (`svc_name`,`event_state`,`next_try_time`),
                            KEY `idx_expire_at` (`expire_at`),
                            KEY `idx_create_at` (`create_at`),
                            KEY `idx_db_created_at` (`db_created_at`),
@@ -31,12 +33,13 @@ CREATE TABLE `__event` (
 ;
 
 CREATE TABLE `__archived_event` (
-                           `id` bigint(20) NOT NULL AUTO_INCREMENT,
+                           `id` bigint(20) NOT NULL,
                            `event_uuid` varchar(64) NOT NULL DEFAULT '',
                            `svc_name` varchar(255) NOT NULL DEFAULT '',
                            `event_type` varchar(255) NOT NULL DEFAULT '',
                            `data` text,
                            `data_type` varchar(255) NOT NULL DEFAULT '',
+                           `data_codec` varchar(32) NOT NULL DEFAULT '',
                            `event_state` int(11) NOT NULL DEFAULT '0',
                            `expire_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
                            `create_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
@@ -60,4 +63,22 @@ CREATE TABLE `__archived_event` (
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='集成事件\n@I;'
 -- partition by range(to_days(db_created_at))
 -- (partition p202201 values less than (to_days('2022-02-01')) ENGINE=InnoDB)
-;
\ No newline at end of file
+;
+
+CREATE TABLE `__event_archive_checkpoint` (
+                           `svc_name` varchar(255) NOT NULL DEFAULT '',
+                           `last_id` bigint(20) NOT NULL DEFAULT '0',
+                           `db_created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+                           `db_updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+                           PRIMARY KEY (`svc_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='事件归档检查点\n@I;'
+;
+
+CREATE TABLE `__processed_event` (
+                           `consumer_group` varchar(255) NOT NULL DEFAULT '',
+                           `event_uuid` varchar(64) NOT NULL DEFAULT '',
+                           `db_created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+                           PRIMARY KEY (`consumer_group`, `event_uuid`),
+                           KEY `idx_db_created_at` (`db_created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='已消费事件\n@I;'
+;
@@ -0,0 +1,177 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+import org.ddd.share.DomainException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class EventPayloadCodecsTest extends TestCase {
+
+    @Override
+    protected void tearDown() {
+        EventPayloadCodecs.configure(JsonEventPayloadCodec.ID, 0);
+    }
+
+    public void testJsonStoredAsPlainText() {
+        EventPayloadCodecs.EncodedPayload encoded = EventPayloadCodecs.encode(new OrderPaid(1L, "paid"));
+
+        assertEquals(JsonEventPayloadCodec.ID, encoded.getCodecId());
+        assertTrue(encoded.getData().startsWith("{"));
+        assertEquals(new OrderPaid(1L, "paid"), EventPayloadCodecs.decode(encoded.getCodecId(), encoded.getData(), OrderPaid.class.getName()));
+    }
+
+    public void testBlankCodecDecodedAsLegacyJson() {
+        Object payload = EventPayloadCodecs.decode(null, "{\"orderId\":2,\"remark\":\"legacy\"}", OrderPaid.class.getName());
+
+        assertEquals(new OrderPaid(2L, "legacy"), payload);
+    }
+
+    public void testCompressedAboveThreshold() {
+        EventPayloadCodecs.configure(JsonEventPayloadCodec.ID, 64);
+        OrderPaid small = new OrderPaid(1L, "small");
+        OrderPaid large = new OrderPaid(2L, repeat("large", 100));
+
+        EventPayloadCodecs.EncodedPayload smallEncoded = EventPayloadCodecs.encode(small);
+        EventPayloadCodecs.EncodedPayload largeEncoded = EventPayloadCodecs.encode(large);
+
+        assertEquals(JsonEventPayloadCodec.ID, smallEncoded.getCodecId());
+        assertEquals(JsonEventPayloadCodec.ID + "+" + EventPayloadCodecs.COMPRESSION_GZIP, largeEncoded.getCodecId());
+        assertTrue(largeEncoded.getData().length() < repeat("large", 100).length());
+        assertEquals(large, EventPayloadCodecs.decode(largeEncoded.getCodecId(), largeEncoded.getData(), OrderPaid.class.getName()));
+    }
+
+    public void testCustomCodecStoredAsBase64() {
+        EventPayloadCodecs.register(new JavaSerializationCodec());
+        EventPayloadCodecs.configure(JavaSerializationCodec.ID, 0);
+        OrderPaid payload = new OrderPaid(3L, "binary");
+
+        EventPayloadCodecs.EncodedPayload encoded = EventPayloadCodecs.encode(payload);
+
+        assertEquals(JavaSerializationCodec.ID, encoded.getCodecId());
+        assertEquals(payload, EventPayloadCodecs.decode(encoded.getCodecId(), encoded.getData(), OrderPaid.class.getName()));
+        // 切换默认编解码器后历史数据仍按持久化的标识解码
+        EventPayloadCodecs.configure(JsonEventPayloadCodec.ID, 0);
+        assertEquals(payload, EventPayloadCodecs.decode(encoded.getCodecId(), encoded.getData(), OrderPaid.class.getName()));
+    }
+
+    public void testSmileStoredAsBase64() {
+        EventPayloadCodecs.configure(SmileEventPayloadCodec.ID, 0);
+        OrderPaid payload = new OrderPaid(4L, "smile");
+
+        EventPayloadCodecs.EncodedPayload encoded = EventPayloadCodecs.encode(payload);
+
+        assertEquals(SmileEventPayloadCodec.ID, encoded.getCodecId());
+        assertFalse(encoded.getData().startsWith("{"));
+        assertEquals(payload, EventPayloadCodecs.decode(encoded.getCodecId(), encoded.getData(), OrderPaid.class.getName()));
+    }
+
+    public void testIllegalCodecRejected() {
+        try {
+            EventPayloadCodecs.configure("unknown", 0);
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+        try {
+            EventPayloadCodecs.decode("unknown", "", OrderPaid.class.getName());
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+    }
+
+    public void testUnknownDataTypeDecodedAsNull() {
+        assertNull(EventPayloadCodecs.decode(JsonEventPayloadCodec.ID, "{}", "org.ddd.NotExists"));
+        assertNull(EventPayloadCodecs.resolvePayloadClass(""));
+        assertSame(OrderPaid.class, EventPayloadCodecs.resolvePayloadClass(OrderPaid.class.getName()));
+    }
+
+    private static String repeat(String value, int times) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    public static class OrderPaid implements Serializable {
+        private Long orderId;
+        private String remark;
+
+        public OrderPaid() {
+        }
+
+        public OrderPaid(Long orderId, String remark) {
+            this.orderId = orderId;
+            this.remark = remark;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public void setOrderId(Long orderId) {
+            this.orderId = orderId;
+        }
+
+        public String getRemark() {
+            return remark;
+        }
+
+        public void setRemark(String remark) {
+            this.remark = remark;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof OrderPaid)) {
+                return false;
+            }
+            OrderPaid other = (OrderPaid) o;
+            return orderId.equals(other.orderId) && remark.equals(other.remark);
+        }
+
+        @Override
+        public int hashCode() {
+            return orderId.hashCode();
+        }
+    }
+
+    static class JavaSerializationCodec implements EventPayloadCodec {
+        static final String ID = "java";
+
+        @Override
+        public String getId() {
+            return ID;
+        }
+
+        @Override
+        public byte[] encode(Object payload) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(payload);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public Object decode(byte[] data, Class<?> payloadClass) {
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+                return ois.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
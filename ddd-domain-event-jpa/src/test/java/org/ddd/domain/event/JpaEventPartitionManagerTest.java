@@ -0,0 +1,139 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaEventPartitionManagerTest extends TestCase {
+    /**
+     * MySQL to_days('2007-10-07')
+     */
+    private static final long TO_DAYS_20071007 = 733321L;
+
+    public void testPreCreateMonthlyPartitions() {
+        StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+        jdbcTemplate.partition("p200709", String.valueOf(TO_DAYS_20071007 - 6));
+
+        newManager(jdbcTemplate, "month").preCreatePartitions(JpaEventPartitionManager.TABLE_EVENT, date(2007, Calendar.OCTOBER, 7));
+
+        assertEquals(3, jdbcTemplate.executed.size());
+        assertTrue(jdbcTemplate.executed.get(0).contains("partition p200710 values less than (to_days('2007-11-01'))"));
+        assertTrue(jdbcTemplate.executed.get(1).contains("partition p200711 values less than (to_days('2007-12-01'))"));
+        assertTrue(jdbcTemplate.executed.get(2).contains("partition p200712 values less than (to_days('2008-01-01'))"));
+    }
+
+    public void testPreCreateSkipsCoveredPeriods() {
+        StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+        // 已有分区覆盖至2007-10-08（不含）
+        jdbcTemplate.partition("p20071007", String.valueOf(TO_DAYS_20071007 + 1));
+
+        newManager(jdbcTemplate, "day").preCreatePartitions(JpaEventPartitionManager.TABLE_EVENT, date(2007, Calendar.OCTOBER, 7));
+
+        assertEquals(2, jdbcTemplate.executed.size());
+        assertTrue(jdbcTemplate.executed.get(0).contains("partition p20071008 values less than (to_days('2007-10-09'))"));
+        assertTrue(jdbcTemplate.executed.get(1).contains("partition p20071009 values less than (to_days('2007-10-10'))"));
+    }
+
+    public void testPreCreateSkipsMaxValueOrUnpartitionedTable() {
+        StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+        JpaEventPartitionManager manager = newManager(jdbcTemplate, "month");
+
+        manager.preCreatePartitions(JpaEventPartitionManager.TABLE_EVENT, date(2007, Calendar.OCTOBER, 7));
+        jdbcTemplate.partition("pmax", "MAXVALUE");
+        manager.preCreatePartitions(JpaEventPartitionManager.TABLE_EVENT, date(2007, Calendar.OCTOBER, 7));
+
+        assertTrue(jdbcTemplate.executed.isEmpty());
+    }
+
+    public void testDropExpiredPartitionsKeepsLastPartition() {
+        StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+        jdbcTemplate.partition("p1", String.valueOf(TO_DAYS_20071007 - 20));
+        jdbcTemplate.partition("p2", String.valueOf(TO_DAYS_20071007 - 10));
+
+        newManager(jdbcTemplate, "month").dropPartitions(JpaEventPartitionManager.TABLE_ARCHIVED_EVENT, date(2007, Calendar.OCTOBER, 7), false, false);
+
+        assertEquals(1, jdbcTemplate.executed.size());
+        assertTrue(jdbcTemplate.executed.get(0).endsWith("drop partition `p1`"));
+    }
+
+    public void testDropStopsAtFirstUnexpiredOrNonEmptyPartition() {
+        StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+        jdbcTemplate.partition("p1", String.valueOf(TO_DAYS_20071007 - 30));
+        jdbcTemplate.partition("p2", String.valueOf(TO_DAYS_20071007 - 20));
+        jdbcTemplate.partition("p3", String.valueOf(TO_DAYS_20071007 - 10));
+        jdbcTemplate.partition("p4", String.valueOf(TO_DAYS_20071007 + 10));
+        jdbcTemplate.counts.put("p2", 5L);
+
+        newManager(jdbcTemplate, "month").dropPartitions(JpaEventPartitionManager.TABLE_EVENT, date(2007, Calendar.OCTOBER, 7), true, false);
+
+        assertEquals(1, jdbcTemplate.executed.size());
+        assertTrue(jdbcTemplate.executed.get(0).endsWith("drop partition `p1`"));
+    }
+
+    public void testExchangeBeforeDrop() {
+        StubJdbcTemplate jdbcTemplate = new StubJdbcTemplate();
+        jdbcTemplate.partition("p1", String.valueOf(TO_DAYS_20071007 - 20));
+        jdbcTemplate.partition("p2", String.valueOf(TO_DAYS_20071007 + 10));
+
+        newManager(jdbcTemplate, "month").dropPartitions(JpaEventPartitionManager.TABLE_ARCHIVED_EVENT, date(2007, Calendar.OCTOBER, 7), false, true);
+
+        assertEquals(4, jdbcTemplate.executed.size());
+        assertTrue(jdbcTemplate.executed.get(2).contains("exchange partition `p1` with table `__archived_event_p1`"));
+        assertTrue(jdbcTemplate.executed.get(3).endsWith("drop partition `p1`"));
+    }
+
+    private static JpaEventPartitionManager newManager(JdbcTemplate jdbcTemplate, String granularity) {
+        JpaEventPartitionManager manager = new JpaEventPartitionManager(jdbcTemplate);
+        Field field = ReflectionUtils.findField(JpaEventPartitionManager.class, "granularity");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, manager, granularity);
+        return manager;
+    }
+
+    private static Date date(int year, int month, int day) {
+        return new GregorianCalendar(year, month, day, 12, 0).getTime();
+    }
+
+    static class StubJdbcTemplate extends JdbcTemplate {
+        final List<Map<String, Object>> partitions = new ArrayList<>();
+        final Map<String, Long> counts = new HashMap<>();
+        final List<String> executed = new ArrayList<>();
+
+        void partition(String name, String description) {
+            Map<String, Object> partition = new LinkedHashMap<>();
+            partition.put("partition_name", name);
+            partition.put("partition_description", description);
+            partitions.add(partition);
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            return partitions;
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) {
+            String partition = sql.substring(sql.indexOf("partition (`") + "partition (`".length(), sql.lastIndexOf("`)"));
+            return requiredType.cast(counts.getOrDefault(partition, 0L));
+        }
+
+        @Override
+        public void execute(String sql) {
+            executed.add(sql);
+        }
+    }
+}
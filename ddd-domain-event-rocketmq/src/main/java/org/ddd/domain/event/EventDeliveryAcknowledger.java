@@ -0,0 +1,155 @@
+package org.ddd.domain.event;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事件发送确认批量回写
+ * MQ发送回调仅将事件入队，由独立刷写线程按数量或时间阈值批量回写发送状态；
+ * 进程崩溃时未回写的事件保持DELIVERING状态，到next_try_time后由补偿任务重新发送（至少一次）
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Slf4j
+public class EventDeliveryAcknowledger {
+    private final EventRecordRepository eventRecordRepository;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<EventRecord> queue;
+
+    private volatile boolean running = false;
+    private Thread flusher = null;
+
+    private final AtomicLong acknowledgedCount = new AtomicLong(0);
+    private final AtomicLong flushedCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+
+    public EventDeliveryAcknowledger(EventRecordRepository eventRecordRepository, int batchSize, long flushIntervalMillis, int queueCapacity) {
+        this.eventRecordRepository = eventRecordRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::loop, "event-delivery-acknowledger");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 事件确认入队
+     *
+     * @param event
+     * @return 未启动或队列已满返回false，调用方需自行同步回写
+     */
+    public boolean acknowledge(EventRecord event) {
+        if (!running || !queue.offer(event)) {
+            return false;
+        }
+        acknowledgedCount.incrementAndGet();
+        return true;
+    }
+
+    private void loop() {
+        List<EventRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EventRecord first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    EventRecord next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<EventRecord> batch) {
+        try {
+            eventRecordRepository.confirmDeliveredAll(new ArrayList<>(batch), LocalDateTime.now());
+            flushedCount.addAndGet(batch.size());
+        } catch (Exception ex) {
+            // 未回写事件保持DELIVERING状态，由补偿任务重新发送
+            failedCount.addAndGet(batch.size());
+            log.error("集成事件发送确认回写失败, count=" + batch.size(), ex);
+        }
+    }
+
+    /**
+     * 待回写事件数
+     *
+     * @return
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledgedCount.get();
+    }
+
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * 停止接收，并等待已入队事件回写完毕
+     *
+     * @param awaitMillis
+     */
+    public void shutdown(long awaitMillis) {
+        Thread flusher;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            flusher = this.flusher;
+        }
+        try {
+            flusher.join(awaitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("集成事件发送确认回写关闭超时，未回写事件数={}", queue.size());
+        }
+    }
+}
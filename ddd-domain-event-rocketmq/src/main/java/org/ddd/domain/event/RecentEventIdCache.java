@@ -0,0 +1,46 @@
+package org.ddd.domain.event;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 近期已处理事件标识缓存
+ * 新旧两代集合轮转：当代写满容量一半或超过时间窗口时，当代转为旧代、旧代丢弃；
+ * 查询无锁，内存上限约为容量，命中即为重复投递，未命中需回查幂等存储
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RecentEventIdCache {
+    private final int generationCapacity;
+    private final long windowMillis;
+
+    private volatile Map<String, Boolean> current = new ConcurrentHashMap<>();
+    private volatile Map<String, Boolean> previous = new ConcurrentHashMap<>();
+    private volatile long rotatedAt = System.currentTimeMillis();
+
+    public RecentEventIdCache(int capacity, long windowMillis) {
+        this.generationCapacity = Math.max(1, capacity / 2);
+        this.windowMillis = windowMillis;
+    }
+
+    public boolean contains(String key) {
+        return current.containsKey(key) || previous.containsKey(key);
+    }
+
+    public void add(String key) {
+        if (current.size() >= generationCapacity || System.currentTimeMillis() - rotatedAt > windowMillis) {
+            rotate();
+        }
+        current.put(key, Boolean.TRUE);
+    }
+
+    private synchronized void rotate() {
+        if (current.size() < generationCapacity && System.currentTimeMillis() - rotatedAt <= windowMillis) {
+            return;
+        }
+        previous = current;
+        current = new ConcurrentHashMap<>();
+        rotatedAt = System.currentTimeMillis();
+    }
+}
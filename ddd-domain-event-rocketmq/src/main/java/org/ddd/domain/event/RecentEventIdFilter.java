@@ -0,0 +1,143 @@
+package org.ddd.domain.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 近期已处理事件标识布隆过滤器
+ * 新旧两代过滤器按时间窗口轮转，覆盖最近一至两个窗口内记录的标识；未命中即确定窗口内未记录，命中可能误判需回查幂等存储；
+ * 超出预期插入数仅抬高误判率，不产生漏判
+ * <p>
+ * 仅记录本实例处理过的标识：消息队列在本实例持续消费满一个窗口后未命中才可信（队列超过一个窗口无消息视为重新分配，重新计时），
+ * 重启或队列重新分配后的重复投递在此之前仍回查幂等存储；
+ * 其他实例处理过的事件（如生产端重发路由至其他队列）不在本过滤器中，此类重复投递无法识别
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RecentEventIdFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final int bitSize;
+    private final int hashCount;
+    private final long windowMillis;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+    private volatile long rotatedAt = System.currentTimeMillis();
+    private final Map<String, QueueSeen> queueSeen = new ConcurrentHashMap<>();
+
+    /**
+     * @param expectedInsertions 每个窗口预期记录数
+     * @param windowMillis       时间窗口
+     */
+    public RecentEventIdFilter(int expectedInsertions, long windowMillis) {
+        long n = Math.max(1, expectedInsertions);
+        this.bitSize = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64L, (long) Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.windowMillis = windowMillis;
+        this.current = newBits();
+        this.previous = newBits();
+    }
+
+    /**
+     * 是否确定未处理：所在队列已在本实例消费满一个窗口，且标识未命中
+     *
+     * @param queueKey 消息队列标识
+     * @param key      事件标识
+     * @return
+     */
+    public boolean definitelyNotSeen(String queueKey, String key) {
+        long now = System.currentTimeMillis();
+        QueueSeen seen = queueSeen.computeIfAbsent(queueKey, k -> new QueueSeen(now));
+        boolean trusted;
+        synchronized (seen) {
+            if (now - seen.lastSeenAt > windowMillis) {
+                seen.firstSeenAt = now;
+            }
+            seen.lastSeenAt = now;
+            trusted = now - seen.firstSeenAt >= windowMillis;
+        }
+        return trusted && !mightContain(key);
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        return contains(current, hash) || contains(previous, hash);
+    }
+
+    public void put(String key) {
+        if (System.currentTimeMillis() - rotatedAt > windowMillis) {
+            rotate();
+        }
+        long hash = hash(key);
+        AtomicLongArray bits = current;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(h1 + i * h2);
+            long mask = 1L << index;
+            int word = index >>> 6;
+            long value;
+            do {
+                value = bits.get(word);
+                if ((value & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, value, value | mask));
+        }
+    }
+
+    private boolean contains(AtomicLongArray bits, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(h1 + i * h2);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void rotate() {
+        if (System.currentTimeMillis() - rotatedAt <= windowMillis) {
+            return;
+        }
+        previous = current;
+        current = newBits();
+        rotatedAt = System.currentTimeMillis();
+    }
+
+    private AtomicLongArray newBits() {
+        return new AtomicLongArray((bitSize + 63) >>> 6);
+    }
+
+    private int index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitSize;
+    }
+
+    private static class QueueSeen {
+        private long firstSeenAt;
+        private long lastSeenAt;
+
+        private QueueSeen(long now) {
+            this.firstSeenAt = now;
+            this.lastSeenAt = now;
+        }
+    }
+
+    /**
+     * 64位FNV-1a，高低32位作为两个独立哈希
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
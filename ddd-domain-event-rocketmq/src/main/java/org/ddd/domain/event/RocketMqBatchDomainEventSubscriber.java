@@ -0,0 +1,18 @@
+package org.ddd.domain.event;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public abstract class RocketMqBatchDomainEventSubscriber<Event> extends RocketMqDomainEventSubscriber<Event> implements BatchDomainEventSubscriber<Event> {
+    @Override
+    public abstract void onEvents(List<Event> events);
+
+    @Override
+    public void onEvent(Event event) {
+        onEvents(Collections.singletonList(event));
+    }
+}
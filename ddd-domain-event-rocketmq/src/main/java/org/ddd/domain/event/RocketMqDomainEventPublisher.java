@@ -4,18 +4,31 @@ import com.alibaba.fastjson.JSON;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.client.producer.SendCallback;
 import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageClientIDSetter;
+import org.apache.rocketmq.common.message.MessageDecoder;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQHeaders;
+import org.apache.rocketmq.spring.support.RocketMQUtil;
 import org.ddd.share.DomainException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
-import static org.ddd.share.Constants.CONFIG_KEY_4_SVC_NAME;
+import static org.ddd.share.Constants.*;
 
 /**
  * @author qiaohe
@@ -34,6 +47,33 @@ public class RocketMqDomainEventPublisher implements DomainEventPublisher {
     @Autowired
     Environment environment;
 
+    /**
+     * 发送确认异步批量回写
+     */
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_ASYNC)
+    private boolean ackAsync = true;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_BATCHSIZE)
+    private int ackBatchSize = 200;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_FLUSHINTERVALMILLIS)
+    private long ackFlushIntervalMillis = 100;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_QUEUECAPACITY)
+    private int ackQueueCapacity = 10000;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_ACK_SHUTDOWNAWAITSECONDS)
+    private int ackShutdownAwaitSeconds = 30;
+    private EventDeliveryAcknowledger eventDeliveryAcknowledger = null;
+
+    /**
+     * 进程内消息是否等待独立订阅者完成
+     */
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_AWAIT)
+    private boolean fanoutAwait = true;
+
+    /**
+     * 同一目标的多个事件以RocketMQ批量消息发送（同步发送，阻塞发布线程），默认关闭
+     */
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_PUBLISHER_BATCH_ENABLE)
+    private boolean batchSendEnable = false;
+
     /**
      * 如下配置需配置好，保障RocketMqTemplate被初始化
      * ## rocketmq
@@ -55,41 +95,243 @@ public class RocketMqDomainEventPublisher implements DomainEventPublisher {
         this.eventRecordRepository = eventRecordRepository;
     }
 
+    @PostConstruct
+    public void init() {
+        // 发送目标依赖占位符解析，由发布者自行安装，不依赖订阅适配器的初始化
+        DomainEventMetadata.configurePlaceholderResolver(environment::resolvePlaceholders);
+        if (ackAsync && eventRecordRepository != null) {
+            eventDeliveryAcknowledger = new EventDeliveryAcknowledger(eventRecordRepository, ackBatchSize, ackFlushIntervalMillis, ackQueueCapacity);
+            eventDeliveryAcknowledger.start();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (eventDeliveryAcknowledger != null) {
+            eventDeliveryAcknowledger.shutdown(TimeUnit.SECONDS.toMillis(ackShutdownAwaitSeconds));
+        }
+    }
+
+    public EventDeliveryAcknowledger getEventDeliveryAcknowledger() {
+        return eventDeliveryAcknowledger;
+    }
+
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void publish(Object eventPayload) {
-        EventRecord event = null;
+        EventRecord event = toEventRecord(eventPayload);
+        if (!(eventPayload instanceof EventRecord)) {
+            eventRecordRepository.save(event);
+        }
+        try {
+            send(resolveDestination(event), event);
+        } catch (Exception ex) {
+            log.error(String.format("集成事件发布失败: %s", event.toString()), ex);
+            event.completeSend(false);
+        }
+    }
+
+    /**
+     * 批量发布
+     * 按发送目标分组，同一目标的多个事件以RocketMQ批量消息发送，单批不超过producer.maxMessageSize（顺序事件逐条发送）；
+     * 批量消息整体成功或失败，结果逐条回写至对应事件记录
+     *
+     * @param eventPayloads
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void publishAll(List<Object> eventPayloads) {
+        if (eventPayloads == null || eventPayloads.isEmpty()) {
+            return;
+        }
+        List<EventRecord> newEvents = new ArrayList<>();
+        Map<String, List<EventRecord>> destinationEvents = new LinkedHashMap<>();
+        for (Object eventPayload : eventPayloads) {
+            EventRecord event = toEventRecord(eventPayload);
+            if (!(eventPayload instanceof EventRecord)) {
+                newEvents.add(event);
+            }
+            String destination = resolveDestination(event);
+            destinationEvents.computeIfAbsent(destination == null ? "" : destination, k -> new ArrayList<>()).add(event);
+        }
+        if (!newEvents.isEmpty()) {
+            eventRecordRepository.saveAll(newEvents);
+        }
+        for (Map.Entry<String, List<EventRecord>> entry : destinationEvents.entrySet()) {
+            String destination = entry.getKey();
+            List<EventRecord> events = entry.getValue();
+            List<EventRecord> batchEvents = new ArrayList<>(events.size());
+            for (EventRecord event : events) {
+                if (batchSendEnable && !destination.isEmpty() && !isOrderly(event)) {
+                    batchEvents.add(event);
+                    continue;
+                }
+                sendQuietly(destination, event);
+            }
+            if (batchEvents.size() == 1) {
+                sendQuietly(destination, batchEvents.get(0));
+            } else if (!batchEvents.isEmpty()) {
+                sendBatch(destination, batchEvents);
+            }
+        }
+    }
+
+    /**
+     * 构建消息，事件唯一标识作为消息KEYS，供消费端幂等去重
+     *
+     * @param event
+     * @return
+     */
+    private org.springframework.messaging.Message<Object> toMessage(EventRecord event) {
+        MessageBuilder<Object> builder = MessageBuilder.withPayload(event.getPayload());
+        if (event.getEventUuid() != null) {
+            builder.setHeader(RocketMQHeaders.KEYS, event.getEventUuid());
+        }
+        return builder.build();
+    }
+
+    private void sendQuietly(String destination, EventRecord event) {
+        try {
+            send(destination, event);
+        } catch (Exception ex) {
+            log.error(String.format("集成事件发布失败: %s", event.toString()), ex);
+            event.completeSend(false);
+        }
+    }
+
+    private boolean isOrderly(EventRecord event) {
+        return event.getPayload() != null && DomainEventMetadata.of(event.getPayload()).isOrderly();
+    }
+
+    private EventRecord toEventRecord(Object eventPayload) {
         if (eventPayload instanceof EventRecord) {
-            event = (EventRecord) eventPayload;
+            return (EventRecord) eventPayload;
+        }
+        EventRecord event = eventRecordRepository.create();
+        event.init(eventPayload, svcName, LocalDateTime.now(), defaultExpireAfter, defaultRetryTimes);
+        event.beginDelivery(LocalDateTime.now());
+        return event;
+    }
+
+    private String resolveDestination(EventRecord event) {
+        return event.getPayload() == null
+                ? environment.resolvePlaceholders(event.getEventTopic())
+                : DomainEventMetadata.of(event.getPayload()).getDestination();
+    }
+
+    private void send(String destination, EventRecord event) {
+        String orderKey = event.getPayload() == null
+                ? null
+                : DomainEventMetadata.of(event.getPayload()).getOrderKey(event.getPayload());
+        if (destination != null && !destination.isEmpty() && orderKey != null) {
+            // MQ顺序消息：按顺序键哈希选择队列，同步发送保证同一顺序键的发送顺序；
+            // 发送顺序依赖调用方串行发布同一顺序键的事件（中继模式下由JpaEventScheduleService的顺序通道保证，仅限单节点内）
+            DomainEventSendCallback callback = new DomainEventSendCallback(event, eventRecordRepository, eventDeliveryAcknowledger);
+            SendResult sendResult;
+            try {
+                sendResult = rocketMQTemplate.syncSendOrderly(destination, toMessage(event), orderKey);
+            } catch (Exception ex) {
+                callback.onException(ex);
+                return;
+            }
+            callback.onSuccess(sendResult);
+        } else if (destination != null && !destination.isEmpty()) {
+            // MQ消息
+            rocketMQTemplate.asyncSend(destination, toMessage(event), new DomainEventSendCallback(event, eventRecordRepository, eventDeliveryAcknowledger));
         } else {
-            event = eventRecordRepository.create();
-            event.init(eventPayload, svcName, LocalDateTime.now(), defaultExpireAfter, defaultRetryTimes);
-            event.beginDelivery(LocalDateTime.now());
+            // 进程内消息
+            rocketMqDomainEventSubscriberManager.trigger(event.getPayload(), fanoutAwait);
+            event.confirmDelivered(LocalDateTime.now());
             eventRecordRepository.save(event);
+            event.completeSend(true);
         }
+    }
+
+    /**
+     * 同一目标的事件按消息大小切分批次发送
+     *
+     * @param destination
+     * @param events
+     */
+    private void sendBatch(String destination, List<EventRecord> events) {
+        int maxBatchBytes = rocketMQTemplate.getProducer().getMaxMessageSize();
+        List<Message> messages = new ArrayList<>();
+        List<EventRecord> batchEvents = new ArrayList<>();
+        int batchBytes = 0;
+        for (EventRecord event : events) {
+            Message message;
+            try {
+                message = RocketMQUtil.convertToRocketMessage(rocketMQTemplate.getObjectMapper(), rocketMQTemplate.getCharset(),
+                        destination, toMessage(event));
+            } catch (Exception ex) {
+                log.error(String.format("集成事件发布失败: %s", event.toString()), ex);
+                event.completeSend(false);
+                continue;
+            }
+            int messageBytes = encodedSize(message);
+            if (messageBytes > maxBatchBytes) {
+                // 超限单条消息按单条发送，由broker判定
+                sendQuietly(destination, event);
+                continue;
+            }
+            if (batchBytes + messageBytes > maxBatchBytes) {
+                sendBatch(messages, batchEvents);
+                messages = new ArrayList<>();
+                batchEvents = new ArrayList<>();
+                batchBytes = 0;
+            }
+            messages.add(message);
+            batchEvents.add(event);
+            batchBytes += messageBytes;
+        }
+        if (!messages.isEmpty()) {
+            sendBatch(messages, batchEvents);
+        }
+    }
+
+    private void sendBatch(List<Message> messages, List<EventRecord> events) {
+        SendResult sendResult = null;
+        Throwable throwable = null;
         try {
-            String destination = event.getEventTopic();
-            destination = environment.resolvePlaceholders(destination);
-            if (destination != null && !destination.isEmpty()) {
-                // MQ消息
-                rocketMQTemplate.asyncSend(destination, event.getPayload(), new DomainEventSendCallback(event, eventRecordRepository));
+            sendResult = rocketMQTemplate.getProducer().send(messages);
+        } catch (Exception ex) {
+            throwable = ex;
+        }
+        for (EventRecord event : events) {
+            DomainEventSendCallback callback = new DomainEventSendCallback(event, eventRecordRepository, eventDeliveryAcknowledger);
+            if (throwable == null) {
+                callback.onSuccess(sendResult);
             } else {
-                // 进程内消息
-                rocketMqDomainEventSubscriberManager.trigger(event.getPayload());
-                event.confirmDelivered(LocalDateTime.now());
-                eventRecordRepository.save(event);
+                callback.onException(throwable);
             }
-        } catch (Exception ex) {
-            log.error(String.format("集成事件发布失败: %s", event.toString()), ex);
         }
     }
+
+    /**
+     * 消息在批量消息体中的编码字节数，与客户端批量编码（MessageBatch.encode）一致；
+     * 客户端打包时为每条消息设置唯一标识，此处预先设置使其计入编码长度
+     *
+     * @param message
+     * @return
+     */
+    static int encodedSize(Message message) {
+        MessageClientIDSetter.setUniqID(message);
+        return MessageDecoder.encodeMessage(message).length;
+    }
+
     @Slf4j
     public static class DomainEventSendCallback implements SendCallback {
         private EventRecord event;
         private final EventRecordRepository eventRecordRepository;
+        private final EventDeliveryAcknowledger eventDeliveryAcknowledger;
 
         public DomainEventSendCallback(EventRecord event, EventRecordRepository eventRecordRepository) {
+            this(event, eventRecordRepository, null);
+        }
+
+        public DomainEventSendCallback(EventRecord event, EventRecordRepository eventRecordRepository, EventDeliveryAcknowledger eventDeliveryAcknowledger) {
             this.event = event;
             this.eventRecordRepository = eventRecordRepository;
+            this.eventDeliveryAcknowledger = eventDeliveryAcknowledger;
         }
 
         @Override
@@ -99,12 +341,17 @@ public class RocketMqDomainEventPublisher implements DomainEventPublisher {
                 throw new DomainException("集成事件为NULL");
             }
             try {
-                LocalDateTime now = LocalDateTime.now();
-                event.confirmDelivered(now);
-                eventRecordRepository.save(event);
+                // 异步批量回写，未启用或队列已满时同步回写
+                if (eventDeliveryAcknowledger == null || !eventDeliveryAcknowledger.acknowledge(event)) {
+                    LocalDateTime now = LocalDateTime.now();
+                    event.confirmDelivered(now);
+                    eventRecordRepository.save(event);
+                }
                 log.info(String.format("集成事件发送成功, destination=%s, body=%s", event.getEventTopic(), JSON.toJSONString(event.getPayload())));
             } catch (Exception ex) {
                 log.error("本地事件库持久化失败", ex);
+            } finally {
+                event.completeSend(true);
             }
         }
 
@@ -117,6 +364,8 @@ public class RocketMqDomainEventPublisher implements DomainEventPublisher {
                 log.error(String.format("集成事件发送失败, destination=%s, body=%s", event.getEventTopic(), JSON.toJSONString(event.getPayload())), throwable);
             } catch (Exception ex) {
                 log.error("本地事件库持久化失败", ex);
+            } finally {
+                event.completeSend(false);
             }
         }
     }
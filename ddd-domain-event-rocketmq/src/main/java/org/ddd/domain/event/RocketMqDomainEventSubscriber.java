@@ -7,6 +7,17 @@ package org.ddd.domain.event;
 public abstract class RocketMqDomainEventSubscriber<Event> implements DomainEventSubscriber<Event> {
     public abstract Class<Event> forDomainEventClass();
 
+    /**
+     * 是否独立订阅者
+     * 开启并行分发后，独立订阅者在分发线程池中与其他订阅者并发执行，不参与调用方事务；
+     * 失败不影响其他订阅者，并经事件表单独重试
+     *
+     * @return
+     */
+    public boolean isIndependent() {
+        return false;
+    }
+
     @Override
     public abstract void onEvent(Event o);
 }
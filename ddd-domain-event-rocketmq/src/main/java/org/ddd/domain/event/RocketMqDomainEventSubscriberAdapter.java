@@ -8,6 +8,8 @@ import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
 import org.apache.rocketmq.client.consumer.MQPushConsumer;
 import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
 import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyContext;
+import org.apache.rocketmq.client.consumer.listener.ConsumeOrderlyStatus;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.consumer.ConsumeFromWhere;
 import org.apache.rocketmq.common.message.MessageExt;
@@ -18,13 +20,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 
 import javax.annotation.PostConstruct;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
 import java.util.Set;
 
-import static org.ddd.share.Constants.CONFIG_KEY_4_DOMAIN_EVENT_SUB_PACKAGE;
-import static org.ddd.share.Constants.CONFIG_KEY_4_SVC_NAME;
+import static org.ddd.share.Constants.*;
 
 /**
  * 自动监听集成事件对应的RocketMQ
@@ -36,6 +38,10 @@ import static org.ddd.share.Constants.CONFIG_KEY_4_SVC_NAME;
 @RequiredArgsConstructor
 public class RocketMqDomainEventSubscriberAdapter {
     private static final String CONFIG_KEY_4_ROCKETMQ_NAMESVC = "${rocketmq.name-server:}";
+    private static final int DEFAULT_CONSUME_THREAD_MIN = 20;
+    private static final int DEFAULT_CONSUME_THREAD_MAX = 20;
+    private static final int DEFAULT_PULL_BATCH_SIZE = 32;
+    private static final int DEFAULT_BATCH_CONSUME_MESSAGE_BATCH_MAX_SIZE = 32;
     private final RocketMqDomainEventSubscriberManager rocketMqDomainEventSubscriberManager;
 
     List<MQPushConsumer> mqPushConsumers = new ArrayList<>();
@@ -51,33 +57,48 @@ public class RocketMqDomainEventSubscriberAdapter {
     @Autowired(required = false)
     MQConsumerConfigure mqConsumerConfigure;
 
+    @Autowired(required = false)
+    DomainEventIdempotencyStore idempotencyStore;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_CACHESIZE)
+    int idempotentCacheSize = 100000;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_CACHEWINDOWSECONDS)
+    int idempotentCacheWindowSeconds = 600;
+    RecentEventIdCache recentEventIdCache = null;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_FILTER_ENABLE)
+    boolean idempotentFilterEnable = true;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_FILTER_EXPECTEDINSERTIONS)
+    int idempotentFilterExpectedInsertions = 1000000;
+    RecentEventIdFilter recentEventIdFilter = null;
+
     @PostConstruct
     public void init() {
+        recentEventIdCache = new RecentEventIdCache(idempotentCacheSize, idempotentCacheWindowSeconds * 1000L);
+        if (idempotentFilterEnable) {
+            recentEventIdFilter = new RecentEventIdFilter(idempotentFilterExpectedInsertions, idempotentCacheWindowSeconds * 1000L);
+        }
         Set<Class<?>> classes = ScanUtils.scanClass(scanPath, true);
+        DomainEventMetadata.initialize(environment::resolvePlaceholders, classes);
         classes.stream().filter(cls -> {
-            DomainEvent domainEvent = cls.getAnnotation(DomainEvent.class);
-            if (!Objects.isNull(domainEvent) && StringUtils.isNotEmpty(domainEvent.value())
-                    & !DomainEvent.NONE_SUBSCRIBER.equalsIgnoreCase(domainEvent.subscriber())) {
-                return true;
-            } else {
-                return false;
-            }
+            DomainEventMetadata metadata = DomainEventMetadata.of(cls);
+            return metadata.isIntegrationEvent()
+                    && !DomainEvent.NONE_SUBSCRIBER.equalsIgnoreCase(metadata.getSubscriber());
         }).forEach(domainEventClass -> {
             MQPushConsumer mqPushConsumer = null;
-            if (mqPushConsumer != null) {
+            if (mqConsumerConfigure != null) {
                 mqPushConsumer = mqConsumerConfigure.get(domainEventClass);
             }
             if (mqPushConsumer == null) {
-                createDefaultConsumer(domainEventClass);
+                mqPushConsumer = createDefaultConsumer(domainEventClass);
+            }
+            if (mqPushConsumer == null) {
+                return;
             }
             try {
                 mqPushConsumer.start();
             } catch (MQClientException e) {
                 log.error("领域事件消息监听启动失败", e);
             }
-            if (mqPushConsumer != null) {
-                mqPushConsumers.add(mqPushConsumer);
-            }
+            mqPushConsumers.add(mqPushConsumer);
         });
     }
 
@@ -91,9 +112,9 @@ public class RocketMqDomainEventSubscriberAdapter {
     }
 
     public DefaultMQPushConsumer createDefaultConsumer(Class domainEventClass) {
-        DomainEvent domainEvent = (DomainEvent) domainEventClass.getAnnotation(DomainEvent.class);
-        if (Objects.isNull(domainEvent) || StringUtils.isBlank(domainEvent.value())
-                || DomainEvent.NONE_SUBSCRIBER.equalsIgnoreCase(domainEvent.subscriber())) {
+        DomainEventMetadata metadata = DomainEventMetadata.of(domainEventClass);
+        if (!metadata.isIntegrationEvent()
+                || DomainEvent.NONE_SUBSCRIBER.equalsIgnoreCase(metadata.getSubscriber())) {
             // 不是集成事件, 或显式标明无订阅
             return null;
         }
@@ -101,32 +122,32 @@ public class RocketMqDomainEventSubscriberAdapter {
             // 不存在订阅
             return null;
         }
-        String target = domainEvent.value();
-        target = environment.resolvePlaceholders(target);
-        String topic = target.lastIndexOf(':') > 0 ? target.substring(0, target.lastIndexOf(':')) : target;
-        String tag = target.lastIndexOf(':') > 0 ? target.substring(target.lastIndexOf(':') + 1) : "";
+        String topic = metadata.getTopic();
+        String tag = metadata.getTag();
 
         DefaultMQPushConsumer mqPushConsumer = new DefaultMQPushConsumer();
-        mqPushConsumer.setConsumerGroup(getTopicConsumerGroup(topic, domainEvent.subscriber()));
+        mqPushConsumer.setConsumerGroup(getTopicConsumerGroup(topic, metadata.getSubscriber()));
         mqPushConsumer.setConsumeFromWhere(ConsumeFromWhere.CONSUME_FROM_LAST_OFFSET);
         mqPushConsumer.setInstanceName(applicationName);
         String nameServerAddr = getTopicNamesrvAddr(topic, defaultNameSrv);
         mqPushConsumer.setNamesrvAddr(nameServerAddr);
         mqPushConsumer.setUnitName(domainEventClass.getSimpleName());
-        mqPushConsumer.registerMessageListener((List<MessageExt> msgs, ConsumeConcurrentlyContext context) -> {
-            try {
-                for (MessageExt msg :
-                        msgs) {
-                    String strMsg = new String(msg.getBody(), "UTF-8");
-                    Object event = JSON.parseObject(strMsg, domainEventClass);
-                    rocketMqDomainEventSubscriberManager.trigger(event);
-                }
-                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
-            } catch (Exception ex) {
-                log.error("领域事件消息消费失败", ex);
-                return ConsumeConcurrentlyStatus.RECONSUME_LATER;
-            }
-        });
+        boolean batchConsume = rocketMqDomainEventSubscriberManager.hasBatchSubscriber(domainEventClass);
+        int consumeThreadMax = getTopicConsumerConfig(topic, "consumeThreadMax", DEFAULT_CONSUME_THREAD_MAX);
+        mqPushConsumer.setConsumeThreadMax(consumeThreadMax);
+        mqPushConsumer.setConsumeThreadMin(Math.min(consumeThreadMax, getTopicConsumerConfig(topic, "consumeThreadMin", DEFAULT_CONSUME_THREAD_MIN)));
+        mqPushConsumer.setConsumeMessageBatchMaxSize(getTopicConsumerConfig(topic, "consumeMessageBatchMaxSize", batchConsume ? DEFAULT_BATCH_CONSUME_MESSAGE_BATCH_MAX_SIZE : 1));
+        mqPushConsumer.setPullBatchSize(getTopicConsumerConfig(topic, "pullBatchSize", DEFAULT_PULL_BATCH_SIZE));
+        String consumerGroup = mqPushConsumer.getConsumerGroup();
+        if (metadata.isOrderly()) {
+            mqPushConsumer.registerMessageListener((List<MessageExt> msgs, ConsumeOrderlyContext context) ->
+                    consumeMessagesOrderly(consumerGroup, domainEventClass, batchConsume, msgs)
+            );
+        } else {
+            mqPushConsumer.registerMessageListener((List<MessageExt> msgs, ConsumeConcurrentlyContext context) ->
+                    consumeMessages(consumerGroup, domainEventClass, batchConsume, msgs, context)
+            );
+        }
         try {
             mqPushConsumer.subscribe(topic, tag);
         } catch (MQClientException e) {
@@ -135,6 +156,204 @@ public class RocketMqDomainEventSubscriberAdapter {
         return mqPushConsumer;
     }
 
+    /**
+     * 消费消息
+     * Spring事件及非批量订阅者逐条交付，批量订阅者整批交付，批量失败时仅批量订阅者逐条重试；
+     * 遇到失败时通过ackIndex仅确认之前已处理的消息，失败消息及其后未处理消息重新投递，避免整批重复消费
+     *
+     * @param domainEventClass
+     * @param batchConsume
+     * @param msgs
+     * @param context
+     * @return
+     */
+    private ConsumeConcurrentlyStatus consumeMessages(String consumerGroup, Class domainEventClass, boolean batchConsume, List<MessageExt> msgs, ConsumeConcurrentlyContext context) {
+        // 重复投递的消息对应位置为null
+        List<Object> events = new ArrayList<>(msgs.size());
+        int parsed = 0;
+        try {
+            for (MessageExt msg : msgs) {
+                events.add(isDuplicate(consumerGroup, msg) ? null : parseMessage(domainEventClass, msg));
+                parsed++;
+            }
+        } catch (Exception ex) {
+            log.error("领域事件消息解析失败 msgId=" + msgs.get(parsed).getMsgId(), ex);
+        }
+        // 逐条交付Spring事件及非批量订阅者，首条失败处截止
+        int failedIndex = parsed;
+        for (int i = 0; i < parsed; i++) {
+            if (events.get(i) == null) {
+                continue;
+            }
+            try {
+                if (batchConsume) {
+                    rocketMqDomainEventSubscriberManager.triggerNonBatch(events.get(i));
+                } else {
+                    rocketMqDomainEventSubscriberManager.trigger(events.get(i));
+                }
+            } catch (Exception ex) {
+                log.error("领域事件消息消费失败 msgId=" + msgs.get(i).getMsgId(), ex);
+                failedIndex = i;
+                break;
+            }
+        }
+        // 截止位置之前的事件批量交付批量订阅者；批量失败时仅对批量订阅者逐条重试，非批量订阅者不重复执行
+        if (batchConsume) {
+            List<Integer> batchIndexes = new ArrayList<>(failedIndex);
+            for (int i = 0; i < failedIndex; i++) {
+                if (events.get(i) != null) {
+                    batchIndexes.add(i);
+                }
+            }
+            boolean batchSucceeded = false;
+            if (batchIndexes.size() > 1) {
+                List<Object> batchEvents = new ArrayList<>(batchIndexes.size());
+                batchIndexes.forEach(i -> batchEvents.add(events.get(i)));
+                try {
+                    rocketMqDomainEventSubscriberManager.triggerBatch(domainEventClass, batchEvents);
+                    batchSucceeded = true;
+                } catch (Exception ex) {
+                    log.error("领域事件消息批量消费失败，批量订阅者逐条重试", ex);
+                }
+            }
+            if (!batchSucceeded) {
+                for (Integer i : batchIndexes) {
+                    try {
+                        rocketMqDomainEventSubscriberManager.triggerBatch(domainEventClass, Collections.singletonList(events.get(i)));
+                    } catch (Exception ex) {
+                        log.error("领域事件消息消费失败 msgId=" + msgs.get(i).getMsgId(), ex);
+                        failedIndex = i;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < failedIndex; i++) {
+            if (events.get(i) != null) {
+                markProcessed(consumerGroup, msgs.get(i));
+            }
+        }
+        return failedIndex == msgs.size()
+                ? ConsumeConcurrentlyStatus.CONSUME_SUCCESS
+                : ackBefore(failedIndex, context);
+    }
+
+    /**
+     * 顺序消费消息
+     * 同一队列内消息串行处理，失败时挂起当前队列稍后重试，保证同一顺序键的事件按发送顺序消费
+     *
+     * @param consumerGroup
+     * @param domainEventClass
+     * @param batchConsume
+     * @param msgs
+     * @return
+     */
+    private ConsumeOrderlyStatus consumeMessagesOrderly(String consumerGroup, Class domainEventClass, boolean batchConsume, List<MessageExt> msgs) {
+        try {
+            List<Object> events = new ArrayList<>(msgs.size());
+            List<MessageExt> freshMsgs = new ArrayList<>(msgs.size());
+            for (MessageExt msg : msgs) {
+                if (isDuplicate(consumerGroup, msg)) {
+                    continue;
+                }
+                events.add(parseMessage(domainEventClass, msg));
+                freshMsgs.add(msg);
+            }
+            if (batchConsume && events.size() > 1) {
+                rocketMqDomainEventSubscriberManager.triggerAll(domainEventClass, events);
+                freshMsgs.forEach(msg -> markProcessed(consumerGroup, msg));
+            } else {
+                for (int i = 0; i < events.size(); i++) {
+                    rocketMqDomainEventSubscriberManager.trigger(events.get(i));
+                    markProcessed(consumerGroup, freshMsgs.get(i));
+                }
+            }
+            return ConsumeOrderlyStatus.SUCCESS;
+        } catch (Exception ex) {
+            log.error("领域事件顺序消息消费失败", ex);
+            return ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT;
+        }
+    }
+
+    private Object parseMessage(Class domainEventClass, MessageExt msg) throws UnsupportedEncodingException {
+        String strMsg = new String(msg.getBody(), "UTF-8");
+        return JSON.parseObject(strMsg, domainEventClass);
+    }
+
+    /**
+     * 是否重复投递
+     * 先查近期缓存，命中即重复；再查布隆过滤器，确定未处理则不回查；其余回查幂等存储；
+     * 消息无事件标识（KEYS）或未配置幂等存储时不去重
+     * <p>
+     * 去重为尽力而为：isDuplicate与处理成功后的markProcessed之间无锁（先查后写），
+     * 同一事件并发投递至多个消费线程或实例时仍可能重复处理，订阅者需自行保证业务幂等
+     *
+     * @param consumerGroup
+     * @param msg
+     * @return
+     */
+    private boolean isDuplicate(String consumerGroup, MessageExt msg) {
+        if (idempotencyStore == null || StringUtils.isBlank(msg.getKeys())) {
+            return false;
+        }
+        String eventUuid = msg.getKeys();
+        if (recentEventIdCache.contains(consumerGroup + ":" + eventUuid)) {
+            log.info("领域事件消息重复投递，跳过 msgId={} eventUuid={}", msg.getMsgId(), eventUuid);
+            return true;
+        }
+        if (recentEventIdFilter != null && recentEventIdFilter.definitelyNotSeen(
+                consumerGroup + ":" + msg.getTopic() + "@" + msg.getStoreHost() + "#" + msg.getQueueId(), consumerGroup + ":" + eventUuid)) {
+            return false;
+        }
+        try {
+            if (idempotencyStore.isProcessed(consumerGroup, eventUuid)) {
+                recentEventIdCache.add(consumerGroup + ":" + eventUuid);
+                log.info("领域事件消息重复投递，跳过 msgId={} eventUuid={}", msg.getMsgId(), eventUuid);
+                return true;
+            }
+        } catch (Exception ex) {
+            log.warn("领域事件消费幂等查询失败，按未处理消费 eventUuid=" + eventUuid, ex);
+        }
+        return false;
+    }
+
+    private void markProcessed(String consumerGroup, MessageExt msg) {
+        if (idempotencyStore == null || StringUtils.isBlank(msg.getKeys())) {
+            return;
+        }
+        String eventUuid = msg.getKeys();
+        recentEventIdCache.add(consumerGroup + ":" + eventUuid);
+        if (recentEventIdFilter != null) {
+            recentEventIdFilter.put(consumerGroup + ":" + eventUuid);
+        }
+        try {
+            idempotencyStore.markProcessed(consumerGroup, eventUuid);
+        } catch (Exception ex) {
+            log.warn("领域事件消费幂等记录失败 eventUuid=" + eventUuid, ex);
+        }
+    }
+
+    private ConsumeConcurrentlyStatus ackBefore(int failedIndex, ConsumeConcurrentlyContext context) {
+        if (failedIndex == 0) {
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+        context.setAckIndex(failedIndex - 1);
+        return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+    }
+
+    /**
+     * 消费者参数，优先取 rocketmq.{topic}.consumer.{key}，其次 rocketmq.consumer.{key}
+     *
+     * @param topic
+     * @param key
+     * @param defaultVal
+     * @return
+     */
+    private int getTopicConsumerConfig(String topic, String key, int defaultVal) {
+        String val = environment.resolvePlaceholders("${rocketmq." + topic + ".consumer." + key + ":${rocketmq.consumer." + key + ":" + defaultVal + "}}");
+        return Integer.parseInt(val.trim());
+    }
+
     private String getTopicConsumerGroup(String topic, String defaultVal) {
         if (StringUtils.isBlank(defaultVal)) {
             defaultVal = topic + "-4-" + applicationName;
@@ -4,13 +4,43 @@ import com.alibaba.fastjson.JSON;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.ddd.share.DomainException;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.core.annotation.Order;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.ClassUtils;
 
-import java.util.List;
-import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.ddd.share.Constants.*;
 
 /**
+ * 领域事件订阅管理
+ * 上下文刷新时预建不可变分发表，订阅者按@Order/Ordered排序（未声明排最后），事件类型的父类、接口订阅者同样分发；
+ * 各事件类型的分发结果以ClassValue缓存，分发路径无锁
+ * <p>
+ * 开启skipUnlistenedSpringEvent后，没有@EventListener监听的事件类型不再经由Spring事件广播；
+ * 注意此时仅实现ApplicationListener接口的监听器将收不到这些事件
+ * <p>
+ * 开启fanout后，标记为独立（isIndependent）的订阅者在有界线程池中并发执行，失败相互隔离，
+ * 失败的订阅者以SubscriberRetryEvent写入事件表单独重试；
+ * MQ消费始终等待独立订阅者完成后确认消息，进程内发布（本地事务提交前后触发）是否等待由fanout.await配置
+ *
  * @author qiaohe
  * @date 2023/8/13
  */
@@ -19,37 +49,207 @@ import java.util.Map;
 public class RocketMqDomainEventSubscriberManager implements DomainEventSubscriberManager {
     private final List<RocketMqDomainEventSubscriber> subscribers;
     private final ApplicationEventPublisher applicationEventPublisher;
-    private Map<Class, List<RocketMqDomainEventSubscriber>> subscriberMap = null;
 
-    @Override
-    public <Event> void trigger(Event eventPayload) {
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_SKIPUNLISTENEDSPRINGEVENT)
+    private boolean skipUnlistenedSpringEvent = false;
+
+    private volatile DispatchTable dispatchTable = null;
+
+    /**
+     * 独立订阅者并行分发
+     */
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_ENABLE)
+    private boolean fanoutEnable = false;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_THREADPOOLSIZE)
+    private int fanoutThreadPoolSize = 8;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_QUEUESIZE)
+    private int fanoutQueueSize = 1000;
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_SHUTDOWNAWAITSECONDS)
+    private int fanoutShutdownAwaitSeconds = 30;
+    private ThreadPoolExecutor fanoutExecutor = null;
+
+    @Autowired(required = false)
+    private EventRecordRepository eventRecordRepository;
+    @Value(CONFIG_KEY_4_SVC_NAME)
+    private String svcName;
+    private Duration defaultExpireAfter = Duration.ofDays(1);
+    private int defaultRetryTimes = 30;
+
+    @PostConstruct
+    public void init() {
+        if (fanoutEnable) {
+            // 队列满或线程池已关闭时由调用线程执行（背压）；不同于CallerRunsPolicy，关闭后也不丢弃任务，保证Future完成
+            fanoutExecutor = new ThreadPoolExecutor(fanoutThreadPoolSize, fanoutThreadPoolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, fanoutQueueSize)),
+                    new CustomizableThreadFactory("domain-event-fanout-"),
+                    (r, executor) -> r.run());
+            fanoutExecutor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanoutExecutor == null) {
+            return;
+        }
+        fanoutExecutor.shutdown();
         try {
-            applicationEventPublisher.publishEvent(eventPayload);
-        } catch (Exception e) {
-            log.error("领域事件处理失败 eventPayload=" + JSON.toJSONString(eventPayload), e);
-            throw new DomainException("领域事件处理失败 eventPayload=" + JSON.toJSONString(eventPayload), e);
+            if (!fanoutExecutor.awaitTermination(fanoutShutdownAwaitSeconds, TimeUnit.SECONDS)) {
+                log.warn("领域事件并行分发线程池关闭超时，未执行任务数={}", fanoutExecutor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        if (subscriberMap == null) {
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        Set<Class<?>> listenedEventClasses = skipUnlistenedSpringEvent
+                ? resolveListenedEventClasses(event.getApplicationContext())
+                : null;
+        DispatchTable dispatchTable = new DispatchTable(subscribers, listenedEventClasses);
+        // 预热已订阅的事件类型
+        dispatchTable.subscribersByClass.keySet().forEach(dispatchTable::get);
+        this.dispatchTable = dispatchTable;
+    }
+
+    private DispatchTable getDispatchTable() {
+        DispatchTable dispatchTable = this.dispatchTable;
+        if (dispatchTable == null) {
             synchronized (this) {
-                if (subscriberMap == null) {
-                    subscriberMap = new java.util.HashMap<Class, List<RocketMqDomainEventSubscriber>>();
-                    subscribers.sort((a, b) ->
-                            a.getClass().getAnnotation(Order.class).value() - b.getClass().getAnnotation(Order.class).value()
-                    );
-                    for (RocketMqDomainEventSubscriber subscriber : subscribers) {
-                        if (subscriberMap.get(subscriber.forDomainEventClass()) == null) {
-                            subscriberMap.put(subscriber.forDomainEventClass(), new java.util.ArrayList<RocketMqDomainEventSubscriber>());
-                        }
-                        subscriberMap.get(subscriber.forDomainEventClass()).add(subscriber);
-                    }
+                dispatchTable = this.dispatchTable;
+                if (dispatchTable == null) {
+                    // 上下文刷新前触发，此时无法确定@EventListener监听情况，保留Spring事件广播
+                    dispatchTable = new DispatchTable(subscribers, null);
+                    this.dispatchTable = dispatchTable;
+                }
+            }
+        }
+        return dispatchTable;
+    }
+
+    /**
+     * 收集@EventListener（含@TransactionalEventListener）监听的事件类型
+     *
+     * @param applicationContext
+     * @return
+     */
+    private Set<Class<?>> resolveListenedEventClasses(ApplicationContext applicationContext) {
+        Set<Class<?>> listenedEventClasses = new HashSet<>();
+        for (String beanName : BeanFactoryUtils.beanNamesIncludingAncestors(applicationContext)) {
+            Class<?> beanType;
+            try {
+                beanType = applicationContext.getType(beanName);
+            } catch (Exception ex) {
+                continue;
+            }
+            if (beanType == null) {
+                continue;
+            }
+            Map<Method, EventListener> listenerMethods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (MethodIntrospector.MetadataLookup<EventListener>) method -> AnnotatedElementUtils.findMergedAnnotation(method, EventListener.class));
+            for (Map.Entry<Method, EventListener> entry : listenerMethods.entrySet()) {
+                Class<?>[] classes = entry.getValue().classes();
+                if (classes.length > 0) {
+                    listenedEventClasses.addAll(Arrays.asList(classes));
+                } else if (entry.getKey().getParameterCount() > 0) {
+                    listenedEventClasses.add(entry.getKey().getParameterTypes()[0]);
+                } else {
+                    listenedEventClasses.add(Object.class);
                 }
             }
         }
-        List<RocketMqDomainEventSubscriber> subscribersForEvent = subscriberMap.get(eventPayload.getClass());
-        if (subscribersForEvent == null || subscribersForEvent.isEmpty()) {
+        return listenedEventClasses;
+    }
+
+    @Override
+    public <Event> void trigger(Event eventPayload) {
+        join(triggerAsync(eventPayload), eventPayload);
+    }
+
+    /**
+     * 触发领域事件
+     * 不等待时独立订阅者在分发线程池中继续执行，其失败照常转入重试，无法转入重试时仅记录日志
+     *
+     * @param eventPayload
+     * @param await        是否等待独立订阅者完成
+     * @param <Event>
+     */
+    @Override
+    public <Event> void trigger(Event eventPayload, boolean await) {
+        CompletableFuture<Void> future = triggerAsync(eventPayload);
+        if (await) {
+            join(future, eventPayload);
             return;
         }
-        for (RocketMqDomainEventSubscriber<Event> subscriber : subscribersForEvent) {
+        future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                log.error("领域事件独立订阅者处理失败 eventPayload=" + JSON.toJSONString(eventPayload), throwable);
+            }
+        });
+    }
+
+    /**
+     * 触发领域事件，不含批量订阅者
+     * 与triggerBatch配合使用：逐条交付非批量订阅者，批量订阅者另行批量交付
+     *
+     * @param eventPayload
+     * @param <Event>
+     */
+    public <Event> void triggerNonBatch(Event eventPayload) {
+        join(dispatch(eventPayload, true), eventPayload);
+    }
+
+    private void join(CompletableFuture<Void> future, Object eventPayload) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DomainException("领域事件处理失败 eventPayload=" + JSON.toJSONString(eventPayload), e.getCause());
+        }
+    }
+
+    /**
+     * 触发领域事件
+     * 非独立订阅者在调用线程中依次执行，异常直接抛出；开启并行分发时独立订阅者提交至分发线程池并发执行，
+     * 返回的Future在全部独立订阅者完成后结束，调用方可等待或忽略
+     *
+     * @param eventPayload
+     * @param <Event>
+     * @return
+     */
+    public <Event> CompletableFuture<Void> triggerAsync(Event eventPayload) {
+        return dispatch(eventPayload, false);
+    }
+
+    private <Event> CompletableFuture<Void> dispatch(Event eventPayload, boolean excludeBatchSubscribers) {
+        if (eventPayload instanceof SubscriberRetryEvent) {
+            retry((SubscriberRetryEvent) eventPayload);
+            return CompletableFuture.completedFuture(null);
+        }
+        Dispatch dispatch = getDispatchTable().get(eventPayload.getClass());
+        if (dispatch.bridge) {
+            try {
+                applicationEventPublisher.publishEvent(eventPayload);
+            } catch (Exception e) {
+                log.error("领域事件处理失败 eventPayload=" + JSON.toJSONString(eventPayload), e);
+                throw new DomainException("领域事件处理失败 eventPayload=" + JSON.toJSONString(eventPayload), e);
+            }
+        }
+        List<CompletableFuture<Void>> futures = null;
+        for (RocketMqDomainEventSubscriber<Event> subscriber : dispatch.subscribers) {
+            if (excludeBatchSubscribers && subscriber instanceof BatchDomainEventSubscriber) {
+                continue;
+            }
+            if (fanoutExecutor != null && subscriber.isIndependent()) {
+                if (futures == null) {
+                    futures = new ArrayList<>();
+                }
+                futures.add(CompletableFuture.runAsync(() -> onIndependentEvent(subscriber, eventPayload), fanoutExecutor));
+                continue;
+            }
             try {
                 subscriber.onEvent(eventPayload);
             } catch (Exception e) {
@@ -57,9 +257,207 @@ public class RocketMqDomainEventSubscriberManager implements DomainEventSubscrib
                 throw new DomainException("领域事件处理失败 eventPayload=" + JSON.toJSONString(eventPayload), e);
             }
         }
+        return futures == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
     }
 
+    /**
+     * 独立订阅者处理，失败时写入订阅者重试事件；无法写入时抛出异常
+     *
+     * @param subscriber
+     * @param eventPayload
+     * @param <Event>
+     */
+    private <Event> void onIndependentEvent(RocketMqDomainEventSubscriber<Event> subscriber, Event eventPayload) {
+        try {
+            subscriber.onEvent(eventPayload);
+        } catch (Exception e) {
+            String subscriberName = ClassUtils.getUserClass(subscriber).getName();
+            log.error("领域事件独立订阅者处理失败 subscriber=" + subscriberName + " eventPayload=" + JSON.toJSONString(eventPayload), e);
+            if (!saveRetryEvent(subscriberName, eventPayload)) {
+                throw new DomainException("领域事件处理失败 subscriber=" + subscriberName + " eventPayload=" + JSON.toJSONString(eventPayload), e);
+            }
+        }
+    }
+
+    private boolean saveRetryEvent(String subscriberName, Object eventPayload) {
+        if (eventRecordRepository == null) {
+            return false;
+        }
+        try {
+            DomainEventMetadata metadata = DomainEventMetadata.of(eventPayload);
+            Duration expireAfter = metadata.isRetryConfigured() ? Duration.ofMinutes(metadata.getExpireAfterMinutes()) : defaultExpireAfter;
+            int retryTimes = metadata.isRetryConfigured() ? metadata.getRetryTimes() : defaultRetryTimes;
+            SubscriberRetryEvent retryEvent = new SubscriberRetryEvent(subscriberName, eventPayload.getClass().getName(), JSON.toJSONString(eventPayload));
+            LocalDateTime now = LocalDateTime.now();
+            EventRecord event = eventRecordRepository.create();
+            event.init(retryEvent, svcName, now, expireAfter, retryTimes);
+            // 以发送中状态落库，到next_try_time后由补偿任务重新发布
+            event.beginDelivery(now);
+            eventRecordRepository.save(event);
+            return true;
+        } catch (Exception ex) {
+            log.error("订阅者重试事件保存失败 subscriber=" + subscriberName, ex);
+            return false;
+        }
+    }
+
+    /**
+     * 仅向失败的订阅者重新交付，异常抛出由事件表继续重试
+     *
+     * @param retryEvent
+     */
+    private void retry(SubscriberRetryEvent retryEvent) {
+        for (RocketMqDomainEventSubscriber subscriber : subscribers) {
+            if (!ClassUtils.getUserClass(subscriber).getName().equals(retryEvent.getSubscriber())) {
+                continue;
+            }
+            Object eventPayload;
+            try {
+                eventPayload = JSON.parseObject(retryEvent.getEventData(), ClassUtils.forName(retryEvent.getEventDataType(), null));
+            } catch (ClassNotFoundException e) {
+                throw new DomainException("订阅者重试事件类型不存在 eventDataType=" + retryEvent.getEventDataType(), e);
+            }
+            try {
+                subscriber.onEvent(eventPayload);
+            } catch (Exception e) {
+                log.error("领域事件独立订阅者重试失败 subscriber=" + retryEvent.getSubscriber() + " eventPayload=" + retryEvent.getEventData(), e);
+                throw new DomainException("领域事件独立订阅者重试失败 subscriber=" + retryEvent.getSubscriber(), e);
+            }
+            return;
+        }
+        log.warn("订阅者重试事件跳过，订阅者不存在 subscriber={}", retryEvent.getSubscriber());
+    }
+
+    /**
+     * 批量触发同一类型的领域事件
+     * 先逐条交付Spring事件及非批量订阅者，再将全部事件一次性交付批量订阅者
+     *
+     * @param eventClass
+     * @param eventPayloads
+     * @param <Event>
+     */
+    public <Event> void triggerAll(Class<Event> eventClass, List<Event> eventPayloads) {
+        for (Event eventPayload : eventPayloads) {
+            triggerNonBatch(eventPayload);
+        }
+        triggerBatch(eventClass, eventPayloads);
+    }
+
+    /**
+     * 仅向批量订阅者交付
+     *
+     * @param eventClass
+     * @param eventPayloads
+     * @param <Event>
+     */
+    public <Event> void triggerBatch(Class<Event> eventClass, List<Event> eventPayloads) {
+        Dispatch dispatch = getDispatchTable().get(eventClass);
+        if (!dispatch.hasBatchSubscriber) {
+            return;
+        }
+        for (RocketMqDomainEventSubscriber<Event> subscriber : dispatch.subscribers) {
+            if (!(subscriber instanceof BatchDomainEventSubscriber)) {
+                continue;
+            }
+            try {
+                ((BatchDomainEventSubscriber<Event>) subscriber).onEvents(eventPayloads);
+            } catch (Exception e) {
+                log.error("领域事件批量处理失败 eventClass=" + eventClass.getName() + " count=" + eventPayloads.size(), e);
+                throw new DomainException("领域事件批量处理失败 eventClass=" + eventClass.getName(), e);
+            }
+        }
+    }
+
+    @Override
     public boolean hasSubscriber(Class eventClass) {
-        return subscriberMap.containsKey(eventClass) && subscriberMap.get(eventClass).size() > 0;
+        return !getDispatchTable().get(eventClass).subscribers.isEmpty();
+    }
+
+    /**
+     * 是否存在批量订阅者
+     *
+     * @param eventClass
+     * @return
+     */
+    public boolean hasBatchSubscriber(Class eventClass) {
+        return getDispatchTable().get(eventClass).hasBatchSubscriber;
+    }
+
+    /**
+     * 不可变分发表
+     */
+    private static class DispatchTable {
+        private final Map<Class<?>, List<RocketMqDomainEventSubscriber>> subscribersByClass;
+        private final List<RocketMqDomainEventSubscriber> orderedSubscribers;
+        /**
+         * 为null时全部事件类型均经由Spring事件广播
+         */
+        private final Set<Class<?>> listenedEventClasses;
+        private final ClassValue<Dispatch> dispatches = new ClassValue<Dispatch>() {
+            @Override
+            protected Dispatch computeValue(Class<?> eventClass) {
+                return resolve(eventClass);
+            }
+        };
+
+        private DispatchTable(List<RocketMqDomainEventSubscriber> subscribers, Set<Class<?>> listenedEventClasses) {
+            List<RocketMqDomainEventSubscriber> orderedSubscribers = subscribers == null
+                    ? new ArrayList<>()
+                    : new ArrayList<>(subscribers);
+            AnnotationAwareOrderComparator.sort(orderedSubscribers);
+            Map<Class<?>, List<RocketMqDomainEventSubscriber>> subscribersByClass = new HashMap<>();
+            for (RocketMqDomainEventSubscriber subscriber : orderedSubscribers) {
+                subscribersByClass.computeIfAbsent(subscriber.forDomainEventClass(), c -> new ArrayList<>()).add(subscriber);
+            }
+            this.orderedSubscribers = Collections.unmodifiableList(orderedSubscribers);
+            this.subscribersByClass = Collections.unmodifiableMap(subscribersByClass);
+            this.listenedEventClasses = listenedEventClasses == null ? null : Collections.unmodifiableSet(listenedEventClasses);
+        }
+
+        private Dispatch get(Class<?> eventClass) {
+            return dispatches.get(eventClass);
+        }
+
+        private Dispatch resolve(Class<?> eventClass) {
+            List<RocketMqDomainEventSubscriber> subscribersForEvent = new ArrayList<>();
+            for (RocketMqDomainEventSubscriber subscriber : orderedSubscribers) {
+                Class<?> subscribedClass = subscriber.forDomainEventClass();
+                if (subscribedClass != null && subscribedClass.isAssignableFrom(eventClass)) {
+                    subscribersForEvent.add(subscriber);
+                }
+            }
+            return new Dispatch(Collections.unmodifiableList(subscribersForEvent), isListened(eventClass));
+        }
+
+        private boolean isListened(Class<?> eventClass) {
+            if (listenedEventClasses == null) {
+                return true;
+            }
+            for (Class<?> listenedEventClass : listenedEventClasses) {
+                if (listenedEventClass.isAssignableFrom(eventClass)
+                        || ApplicationEvent.class.equals(listenedEventClass)
+                        || PayloadApplicationEvent.class.equals(listenedEventClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Dispatch {
+        private final List<RocketMqDomainEventSubscriber> subscribers;
+        private final boolean hasBatchSubscriber;
+        /**
+         * 是否经由Spring事件广播
+         */
+        private final boolean bridge;
+
+        private Dispatch(List<RocketMqDomainEventSubscriber> subscribers, boolean bridge) {
+            this.subscribers = subscribers;
+            this.hasBatchSubscriber = subscribers.stream().anyMatch(subscriber -> subscriber instanceof BatchDomainEventSubscriber);
+            this.bridge = bridge;
+        }
     }
 }
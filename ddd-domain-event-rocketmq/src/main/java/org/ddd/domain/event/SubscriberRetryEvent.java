@@ -0,0 +1,30 @@
+package org.ddd.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 订阅者重试事件
+ * 独立订阅者处理失败时写入事件表，由补偿任务重新发布，仅重新交付给失败的订阅者
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriberRetryEvent {
+    /**
+     * 订阅者类名
+     */
+    private String subscriber;
+    /**
+     * 原事件类型
+     */
+    private String eventDataType;
+    /**
+     * 原事件体JSON
+     */
+    private String eventData;
+}
@@ -0,0 +1,62 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RecentEventIdCacheTest extends TestCase {
+
+    public void testContainsAddedKeys() {
+        RecentEventIdCache cache = new RecentEventIdCache(100, 60000L);
+
+        assertFalse(cache.contains("a"));
+        cache.add("a");
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+    }
+
+    public void testPreviousGenerationKeptAfterRotation() {
+        RecentEventIdCache cache = new RecentEventIdCache(4, 60000L);
+
+        cache.add("a");
+        cache.add("b");
+        // 当代写满容量一半，轮转为旧代
+        cache.add("c");
+
+        assertTrue(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+    }
+
+    public void testOldestGenerationDropped() {
+        RecentEventIdCache cache = new RecentEventIdCache(4, 60000L);
+
+        cache.add("a");
+        cache.add("b");
+        cache.add("c");
+        cache.add("d");
+        cache.add("e");
+
+        assertFalse(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+        assertTrue(cache.contains("d"));
+        assertTrue(cache.contains("e"));
+    }
+
+    public void testGenerationRotatedAfterWindow() throws InterruptedException {
+        RecentEventIdCache cache = new RecentEventIdCache(100, 10L);
+
+        cache.add("a");
+        Thread.sleep(20L);
+        cache.add("b");
+        Thread.sleep(20L);
+        cache.add("c");
+
+        assertFalse(cache.contains("a"));
+        assertTrue(cache.contains("b"));
+        assertTrue(cache.contains("c"));
+    }
+}
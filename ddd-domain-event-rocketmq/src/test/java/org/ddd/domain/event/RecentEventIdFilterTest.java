@@ -0,0 +1,80 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RecentEventIdFilterTest extends TestCase {
+
+    public void testNoFalseNegatives() {
+        RecentEventIdFilter filter = new RecentEventIdFilter(1000, 60000L);
+
+        for (int i = 0; i < 2000; i++) {
+            filter.put("event-" + i);
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(filter.mightContain("event-" + i));
+        }
+    }
+
+    public void testFalsePositiveRateNearTarget() {
+        RecentEventIdFilter filter = new RecentEventIdFilter(10000, 60000L);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("seen-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("unseen-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("falsePositives=" + falsePositives, falsePositives < 300);
+    }
+
+    public void testPreviousGenerationKeptAfterRotation() throws InterruptedException {
+        RecentEventIdFilter filter = new RecentEventIdFilter(100, 20L);
+
+        filter.put("a");
+        Thread.sleep(30L);
+        filter.put("b");
+        assertTrue(filter.mightContain("a"));
+        Thread.sleep(30L);
+        filter.put("c");
+
+        assertFalse(filter.mightContain("a"));
+        assertTrue(filter.mightContain("b"));
+        assertTrue(filter.mightContain("c"));
+    }
+
+    public void testQueueTrustedAfterWindow() throws InterruptedException {
+        RecentEventIdFilter filter = new RecentEventIdFilter(100, 100L);
+
+        // 队列刚开始消费，未命中不可信
+        assertFalse(filter.definitelyNotSeen("q1", "a"));
+        Thread.sleep(60L);
+        assertFalse(filter.definitelyNotSeen("q1", "a"));
+        Thread.sleep(60L);
+        assertTrue(filter.definitelyNotSeen("q1", "a"));
+        filter.put("a");
+        assertFalse(filter.definitelyNotSeen("q1", "a"));
+        // 其他队列独立计时
+        assertFalse(filter.definitelyNotSeen("q2", "b"));
+    }
+
+    public void testIdleQueueTrustReset() throws InterruptedException {
+        RecentEventIdFilter filter = new RecentEventIdFilter(100, 100L);
+
+        filter.definitelyNotSeen("q1", "a");
+        Thread.sleep(60L);
+        filter.definitelyNotSeen("q1", "a");
+        Thread.sleep(60L);
+        assertTrue(filter.definitelyNotSeen("q1", "a"));
+        // 超过一个窗口无消息，视为队列重新分配
+        Thread.sleep(150L);
+        assertFalse(filter.definitelyNotSeen("q1", "a"));
+    }
+}
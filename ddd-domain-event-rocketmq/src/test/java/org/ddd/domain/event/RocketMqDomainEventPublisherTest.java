@@ -0,0 +1,130 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RocketMqDomainEventPublisherTest extends TestCase {
+
+    public void testSendCallbackCompletesOnSuccess() {
+        RecordingEventRecord event = new RecordingEventRecord();
+        List<EventRecord> saved = new ArrayList<>();
+        RocketMqDomainEventPublisher.DomainEventSendCallback callback = new RocketMqDomainEventPublisher.DomainEventSendCallback(event, repository(saved));
+
+        assertTrue(event.completions.isEmpty());
+        callback.onSuccess(new SendResult());
+
+        assertEquals(Arrays.asList(true), event.completions);
+        assertTrue(event.delivered);
+        assertEquals(1, saved.size());
+    }
+
+    public void testSendCallbackCompletesOnException() {
+        RecordingEventRecord event = new RecordingEventRecord();
+        List<EventRecord> saved = new ArrayList<>();
+        RocketMqDomainEventPublisher.DomainEventSendCallback callback = new RocketMqDomainEventPublisher.DomainEventSendCallback(event, repository(saved));
+
+        callback.onException(new RuntimeException("broker unavailable"));
+
+        assertEquals(Arrays.asList(false), event.completions);
+        assertFalse(event.delivered);
+        assertTrue(saved.isEmpty());
+    }
+
+    public void testSendCallbackCompletesWhenPersistFails() {
+        RecordingEventRecord event = new RecordingEventRecord();
+        RocketMqDomainEventPublisher.DomainEventSendCallback callback = new RocketMqDomainEventPublisher.DomainEventSendCallback(event, new EventRecordRepository() {
+            @Override
+            public EventRecord create() {
+                return new RecordingEventRecord();
+            }
+
+            @Override
+            public void save(EventRecord event) {
+                throw new IllegalStateException("db unavailable");
+            }
+        });
+
+        callback.onSuccess(new SendResult());
+
+        assertEquals(Arrays.asList(true), event.completions);
+    }
+
+    public void testEncodedSizeMatchesBatchEncoding() {
+        List<Message> messages = new ArrayList<>();
+        int size = 0;
+        for (int i = 0; i < 3; i++) {
+            Message message = new Message("topic", ("{\"orderId\":" + i + ",\"remark\":\"订单" + i + "\"}").getBytes(StandardCharsets.UTF_8));
+            message.setKeys("uuid-" + i);
+            size += RocketMqDomainEventPublisher.encodedSize(message);
+            messages.add(message);
+        }
+
+        assertEquals(MessageBatch.generateFromList(messages).encode().length, size);
+    }
+
+    private static EventRecordRepository repository(List<EventRecord> saved) {
+        return new EventRecordRepository() {
+            @Override
+            public EventRecord create() {
+                return new RecordingEventRecord();
+            }
+
+            @Override
+            public void save(EventRecord event) {
+                saved.add(event);
+            }
+        };
+    }
+
+    static class RecordingEventRecord implements EventRecord {
+        final List<Boolean> completions = new ArrayList<>();
+        boolean delivered = false;
+
+        @Override
+        public void init(Object payload, String svcName, LocalDateTime now, Duration expireAfter, int retryTimes) {
+        }
+
+        @Override
+        public String getEventUuid() {
+            return "uuid";
+        }
+
+        @Override
+        public String getEventTopic() {
+            return "topic";
+        }
+
+        @Override
+        public Object getPayload() {
+            return "payload";
+        }
+
+        @Override
+        public boolean beginDelivery(LocalDateTime now) {
+            return true;
+        }
+
+        @Override
+        public void confirmDelivered(LocalDateTime now) {
+            delivered = true;
+        }
+
+        @Override
+        public void completeSend(boolean delivered) {
+            completions.add(delivered);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package org.ddd.domain.event;
+
+import junit.framework.TestCase;
+import org.ddd.share.DomainException;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class RocketMqDomainEventSubscriberManagerTest extends TestCase {
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> springEvents = new ArrayList<>();
+
+    public void testSubscribersDispatchedInOrderIncludingSupertypes() {
+        RocketMqDomainEventSubscriberManager manager = newManager(
+                new Unordered(calls), new Second(calls), new BaseFirst(calls));
+        manager.onContextRefreshed(new ContextRefreshedEvent(new GenericApplicationContext()));
+
+        manager.trigger(new OrderPaid());
+
+        assertEquals(Arrays.asList("base-first", "second", "unordered"), calls);
+        assertEquals(1, springEvents.size());
+    }
+
+    public void testDispatchBeforeContextRefreshed() {
+        RocketMqDomainEventSubscriberManager manager = newManager(new Second(calls));
+
+        assertTrue(manager.hasSubscriber(OrderPaid.class));
+        assertFalse(manager.hasSubscriber(String.class));
+        manager.trigger("unsubscribed");
+
+        assertTrue(calls.isEmpty());
+        assertEquals(1, springEvents.size());
+    }
+
+    public void testSkipUnlistenedSpringEvent() {
+        RocketMqDomainEventSubscriberManager manager = newManager(new Second(calls));
+        setField(manager, "skipUnlistenedSpringEvent", true);
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(OrderPaidListener.class);
+        applicationContext.refresh();
+        manager.onContextRefreshed(new ContextRefreshedEvent(applicationContext));
+
+        manager.trigger(new OrderPaid());
+        manager.trigger(new OrderCancelled());
+
+        assertEquals(1, springEvents.size());
+        assertTrue(springEvents.get(0) instanceof OrderPaid);
+        assertEquals(Collections.singletonList("second"), calls);
+    }
+
+    public void testFailedSubscriberStopsDispatch() {
+        RocketMqDomainEventSubscriberManager manager = newManager(new Failing(calls, false), new Second(calls));
+
+        try {
+            manager.trigger(new OrderPaid());
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+        assertEquals(Collections.singletonList("failing"), calls);
+    }
+
+    public void testBatchSubscribersReceiveWholeBatch() {
+        RocketMqDomainEventSubscriberManager manager = newManager(new Second(calls), new Batch(calls));
+        manager.onContextRefreshed(new ContextRefreshedEvent(new GenericApplicationContext()));
+
+        assertTrue(manager.hasBatchSubscriber(OrderPaid.class));
+        manager.triggerAll(OrderPaid.class, Arrays.asList(new OrderPaid(), new OrderPaid()));
+
+        assertEquals(Arrays.asList("second", "second", "batch:2"), calls);
+    }
+
+    public void testTriggerNonBatchSkipsBatchSubscribers() {
+        RocketMqDomainEventSubscriberManager manager = newManager(new Second(calls), new Batch(calls));
+
+        manager.triggerNonBatch(new OrderPaid());
+        manager.trigger(new OrderPaid());
+
+        assertEquals(Arrays.asList("second", "second", "batch:1"), calls);
+    }
+
+    public void testIndependentSubscribersFanOut() {
+        RocketMqDomainEventSubscriberManager manager = newManager(new Failing(calls, true), new Second(calls));
+        setField(manager, "fanoutEnable", true);
+        manager.init();
+        try {
+            // 无事件仓储时独立订阅者的失败无法转入重试，由调用方感知
+            try {
+                manager.trigger(new OrderPaid());
+                fail();
+            } catch (DomainException ex) {
+                // expected
+            }
+            assertTrue(calls.contains("second"));
+            assertTrue(calls.contains("failing"));
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void testFailedIndependentSubscriberRetriedInIsolation() {
+        Flaky flaky = new Flaky(calls);
+        RocketMqDomainEventSubscriberManager manager = newManager(flaky, new Second(calls));
+        List<Object> retryEvents = new ArrayList<>();
+        setField(manager, "fanoutEnable", true);
+        setField(manager, "eventRecordRepository", retryEventRepository(retryEvents));
+        manager.init();
+        try {
+            manager.trigger(new OrderPaid());
+
+            assertTrue(calls.contains("flaky"));
+            assertTrue(calls.contains("second"));
+            assertEquals(1, retryEvents.size());
+            SubscriberRetryEvent retryEvent = (SubscriberRetryEvent) retryEvents.get(0);
+            assertEquals(Flaky.class.getName(), retryEvent.getSubscriber());
+
+            // 重试仅交付失败的订阅者，其他订阅者不重复执行
+            calls.clear();
+            manager.trigger(retryEvent);
+            assertEquals(Collections.singletonList("flaky"), calls);
+            assertEquals(1, retryEvents.size());
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    public void testTriggerWithoutAwaitingIndependentSubscribers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Blocking blocking = new Blocking(calls, release);
+        RocketMqDomainEventSubscriberManager manager = newManager(blocking, new Second(calls));
+        setField(manager, "fanoutEnable", true);
+        manager.init();
+        try {
+            manager.trigger(new OrderPaid(), false);
+
+            assertEquals(Collections.singletonList("second"), calls);
+            release.countDown();
+            assertTrue(blocking.done.await(5, TimeUnit.SECONDS));
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    private static EventRecordRepository retryEventRepository(List<Object> retryEvents) {
+        return new EventRecordRepository() {
+            @Override
+            public EventRecord create() {
+                return (EventRecord) Proxy.newProxyInstance(RocketMqDomainEventSubscriberManagerTest.class.getClassLoader(), new Class[]{EventRecord.class},
+                        (proxy, method, args) -> {
+                            if ("init".equals(method.getName())) {
+                                retryEvents.add(args[0]);
+                            }
+                            return method.getReturnType() == boolean.class ? Boolean.TRUE : null;
+                        });
+            }
+
+            @Override
+            public void save(EventRecord event) {
+            }
+        };
+    }
+
+    private RocketMqDomainEventSubscriberManager newManager(RocketMqDomainEventSubscriber<?>... subscribers) {
+        return new RocketMqDomainEventSubscriberManager(new ArrayList<>(Arrays.asList((RocketMqDomainEventSubscriber[]) subscribers)), springEvents::add);
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    static class BaseEvent {
+    }
+
+    static class OrderPaid extends BaseEvent {
+    }
+
+    static class OrderCancelled extends BaseEvent {
+    }
+
+    static class OrderPaidListener {
+        @EventListener
+        public void on(OrderPaid event) {
+        }
+    }
+
+    static abstract class RecordingSubscriber<Event> extends RocketMqDomainEventSubscriber<Event> {
+        final List<String> calls;
+        final String name;
+        final Class<Event> eventClass;
+
+        RecordingSubscriber(List<String> calls, String name, Class<Event> eventClass) {
+            this.calls = calls;
+            this.name = name;
+            this.eventClass = eventClass;
+        }
+
+        @Override
+        public Class<Event> forDomainEventClass() {
+            return eventClass;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            calls.add(name);
+        }
+    }
+
+    @Order(1)
+    static class BaseFirst extends RecordingSubscriber<BaseEvent> {
+        BaseFirst(List<String> calls) {
+            super(calls, "base-first", BaseEvent.class);
+        }
+    }
+
+    @Order(2)
+    static class Second extends RecordingSubscriber<OrderPaid> {
+        Second(List<String> calls) {
+            super(calls, "second", OrderPaid.class);
+        }
+    }
+
+    static class Unordered extends RecordingSubscriber<OrderPaid> {
+        Unordered(List<String> calls) {
+            super(calls, "unordered", OrderPaid.class);
+        }
+    }
+
+    @Order(0)
+    static class Failing extends RecordingSubscriber<OrderPaid> {
+        private final boolean independent;
+
+        Failing(List<String> calls, boolean independent) {
+            super(calls, "failing", OrderPaid.class);
+            this.independent = independent;
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return independent;
+        }
+
+        @Override
+        public void onEvent(OrderPaid event) {
+            super.onEvent(event);
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    static class Flaky extends RecordingSubscriber<OrderPaid> {
+        private final AtomicBoolean failed = new AtomicBoolean(false);
+
+        Flaky(List<String> calls) {
+            super(calls, "flaky", OrderPaid.class);
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+
+        @Override
+        public void onEvent(OrderPaid event) {
+            super.onEvent(event);
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("failed once");
+            }
+        }
+    }
+
+    static class Blocking extends RecordingSubscriber<OrderPaid> {
+        private final CountDownLatch release;
+        final CountDownLatch done = new CountDownLatch(1);
+
+        Blocking(List<String> calls, CountDownLatch release) {
+            super(calls, "blocking", OrderPaid.class);
+            this.release = release;
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+
+        @Override
+        public void onEvent(OrderPaid event) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.onEvent(event);
+            done.countDown();
+        }
+    }
+
+    @Order(3)
+    static class Batch extends RocketMqBatchDomainEventSubscriber<OrderPaid> {
+        private final List<String> calls;
+
+        Batch(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public Class<OrderPaid> forDomainEventClass() {
+            return OrderPaid.class;
+        }
+
+        @Override
+        public void onEvents(List<OrderPaid> events) {
+            calls.add("batch:" + events.size());
+        }
+    }
+}
@@ -10,4 +10,16 @@ public abstract class AbstractJpaPersistListener<Entity> implements PersistListe
     public boolean throwOnException() {
         return true;
     }
+
+    /**
+     * 是否异步执行
+     * 异步监听在事务提交后投递到异步通道执行，不阻塞请求线程；同一实体（按实体类型+主键）固定在同一通道，保证执行顺序；
+     * 异步监听收到的是提交后的实体快照（游离副本，未加载的懒加载关联为null），应只读使用；
+     * 异步监听异常仅记录日志，throwOnException不生效
+     *
+     * @return
+     */
+    public boolean async() {
+        return false;
+    }
 }
@@ -1,6 +1,8 @@
 package org.ddd.domain.repo;
 
 import lombok.RequiredArgsConstructor;
+import org.ddd.share.CountMode;
+import org.ddd.share.DomainException;
 import org.ddd.share.ListOrder;
 import org.ddd.share.PageData;
 import org.ddd.share.PageParam;
@@ -8,10 +10,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +37,17 @@ public abstract class AbstractJpaRepository<Entity, ID> implements Repository<En
     private final JpaSpecificationExecutor<Entity> jpaSpecificationExecutor;
     private final JpaRepository<Entity, ID> jpaRepository;
 
+    @PersistenceContext
+    protected EntityManager entityManager;
+    private Class<Entity> entityClass = null;
+
+    protected Class<Entity> getEntityClass() {
+        if (entityClass == null) {
+            entityClass = (Class<Entity>) GenericTypeResolver.resolveTypeArguments(getClass(), AbstractJpaRepository.class)[0];
+        }
+        return entityClass;
+    }
+
     public Optional<Entity> getById(Object id) {
         List<ID> ids = new ArrayList<>(1);
         ids.add((ID) id);
@@ -56,8 +78,151 @@ public abstract class AbstractJpaRepository<Entity, ID> implements Repository<En
     }
 
     public PageData pageBy(Object condition, PageParam pageParam) {
-        Page<Entity> page = jpaSpecificationExecutor.findAll((org.springframework.data.jpa.domain.Specification<Entity>) condition, convertPageable(pageParam));
-        return convertPageData(page);
+        Specification<Entity> specification = (Specification<Entity>) condition;
+        if (pageParam.getCountLimit() != null && pageParam.getCountLimit() <= 0) {
+            throw new DomainException("计数上限必须大于0，不计数请使用CountMode.NONE");
+        }
+        if (JpaKeysetPageUtils.isKeyset(pageParam)) {
+            return keysetPageBy(specification, pageParam);
+        }
+        CountMode countMode = pageParam.getCountMode() == null ? CountMode.EXACT : pageParam.getCountMode();
+        if (countMode == CountMode.EXACT && pageParam.getCountLimit() == null) {
+            Page<Entity> page = jpaSpecificationExecutor.findAll(specification, convertPageable(pageParam));
+            return convertPageData(page);
+        }
+        int pageSize = pageParam.getPageSize();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Entity> cq = cb.createQuery(getEntityClass());
+        Root<Entity> root = cq.from(getEntityClass());
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, cq, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        if (pageParam.getSort() != null && !pageParam.getSort().isEmpty()) {
+            cq.orderBy(JpaKeysetPageUtils.toOrders(cb, root, pageParam.getSort()));
+        }
+        List<Entity> entities = entityManager.createQuery(cq)
+                .setFirstResult((pageParam.getPageNum() - 1) * pageSize)
+                .setMaxResults(countMode == CountMode.NONE ? pageSize : pageSize + 1)
+                .getResultList();
+        Boolean hasNext = null;
+        if (countMode != CountMode.NONE) {
+            hasNext = entities.size() > pageSize;
+            if (hasNext) {
+                entities = new ArrayList<>(entities.subList(0, pageSize));
+            }
+        }
+        PageData<Entity> pageData = PageData.createWithHasNext(pageSize, pageParam.getPageNum(), entities, hasNext);
+        pageData.setTotalCount(countBy(specification, countMode, pageParam.getCountLimit()));
+        return pageData;
+    }
+
+    /**
+     * 游标分页
+     * 仅查询pageSize+1条记录判断是否存在下一页，默认不计数
+     *
+     * @param specification
+     * @param pageParam
+     * @return
+     */
+    protected PageData<Entity> keysetPageBy(Specification<Entity> specification, PageParam pageParam) {
+        Class<Entity> entityClass = getEntityClass();
+        List<ListOrder> orders = JpaKeysetPageUtils.resolveOrders(pageParam.getSort(), JpaKeysetPageUtils.getIdAttributeName(entityManager, entityClass));
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Entity> cq = cb.createQuery(entityClass);
+        Root<Entity> root = cq.from(entityClass);
+        Predicate restriction = specification == null ? null : specification.toPredicate(root, cq, cb);
+        Predicate predicate = JpaKeysetPageUtils.and(cb, restriction, JpaKeysetPageUtils.seekPredicate(cb, root, orders, pageParam.getCursor()));
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        cq.orderBy(JpaKeysetPageUtils.toOrders(cb, root, orders));
+        List<Entity> entities = entityManager.createQuery(cq)
+                .setMaxResults(pageParam.getPageSize() + 1)
+                .getResultList();
+        CountMode countMode = pageParam.getCountMode() != null
+                ? pageParam.getCountMode()
+                : (pageParam.getCountLimit() != null ? CountMode.EXACT : CountMode.NONE);
+        return JpaKeysetPageUtils.toPageData(pageParam, entities, orders, countBy(specification, countMode, pageParam.getCountLimit()));
+    }
+
+    /**
+     * 按计数模式计数
+     *
+     * @param specification
+     * @param countMode
+     * @param countLimit
+     * @return 不计数返回null
+     */
+    protected Long countBy(Specification<Entity> specification, CountMode countMode, Long countLimit) {
+        switch (countMode) {
+            case EXACT:
+                return countLimit == null
+                        ? jpaSpecificationExecutor.count(specification)
+                        : countLimited(specification, countLimit);
+            case ESTIMATE:
+                return countEstimated(specification);
+            default:
+                return null;
+        }
+    }
+
+    @Value("${ddd.domain.repo.countEstimate.ttlSeconds:60}")
+    private int countEstimateTtlSeconds = 60;
+    @Value("${ddd.domain.repo.countEstimate.maxEntries:1000}")
+    private int countEstimateMaxEntries = 1000;
+    private volatile JpaCountEstimateCache countEstimateCache = null;
+
+    /**
+     * 估算计数，同一查询条件的计数结果在TTL内复用
+     *
+     * @param specification
+     * @return
+     */
+    protected long countEstimated(Specification<Entity> specification) {
+        if (countEstimateCache == null) {
+            synchronized (this) {
+                if (countEstimateCache == null) {
+                    countEstimateCache = new JpaCountEstimateCache(countEstimateTtlSeconds * 1000L, countEstimateMaxEntries);
+                }
+            }
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<Entity> root = cq.from(getEntityClass());
+        cq.select(cb.count(root));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, cq, cb);
+            if (predicate != null) {
+                cq.where(predicate);
+            }
+        }
+        return countEstimateCache.count(entityManager.createQuery(cq));
+    }
+
+    /**
+     * 限量计数，最多扫描countLimit条记录
+     * 仅查询常量列，不读取实体字段及主键，命中索引时可走覆盖索引
+     *
+     * @param specification
+     * @param countLimit 大于0
+     * @return
+     */
+    protected Long countLimited(Specification<Entity> specification, long countLimit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+        Root<Entity> root = cq.from(getEntityClass());
+        cq.select(cb.literal(1));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, cq, cb);
+            if (predicate != null) {
+                cq.where(predicate);
+            }
+        }
+        return (long) entityManager.createQuery(cq)
+                .setMaxResults((int) Math.min(countLimit, Integer.MAX_VALUE))
+                .getResultList()
+                .size();
     }
 
     public long count(Object condition) {
@@ -73,7 +238,7 @@ public abstract class AbstractJpaRepository<Entity, ID> implements Repository<En
     private Sort convertSort(List<ListOrder> orders) {
         Sort sort = Sort.unsorted();
         if (orders != null && !orders.isEmpty()) {
-            Sort.by(orders.stream().map(order -> {
+            sort = Sort.by(orders.stream().map(order -> {
                 if (order.getDesc()) {
                     return Sort.Order.desc(order.getField());
                 } else {
@@ -0,0 +1,107 @@
+package org.ddd.domain.repo;
+
+import org.ddd.share.DomainException;
+import org.hibernate.query.QueryParameter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Root;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译查询
+ * 首次执行时通过QueryBuilder构建CriteriaQuery并渲染为JPQL，缓存JPQL及条件中字面量的隐式参数绑定；
+ * 后续执行直接以JPQL创建查询，命中Hibernate查询计划缓存，跳过Criteria构建与渲染
+ * <p>
+ * 每次调用变化的条件值需使用命名参数 cb.parameter(Class, name) 声明，执行时按参数名传入；
+ * 不支持Tuple结果类型
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaCompiledQuery<R, F> {
+    private final String name;
+    private final Class<R> resultClass;
+    private final Class<F> fromEntityClass;
+    private final JpaUnitOfWork.QueryBuilder<R, F> queryBuilder;
+
+    private volatile String jpql = null;
+    private Map<String, Object> implicitParameters = Collections.emptyMap();
+    private Set<String> explicitParameterNames = Collections.emptySet();
+
+    public JpaCompiledQuery(String name, Class<R> resultClass, Class<F> fromEntityClass, JpaUnitOfWork.QueryBuilder<R, F> queryBuilder) {
+        this.name = name;
+        this.resultClass = resultClass;
+        this.fromEntityClass = fromEntityClass;
+        this.queryBuilder = queryBuilder;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<R> getResultClass() {
+        return resultClass;
+    }
+
+    /**
+     * 创建查询并绑定参数
+     *
+     * @param entityManager
+     * @param parameters
+     * @return
+     */
+    public TypedQuery<R> createQuery(EntityManager entityManager, Map<String, Object> parameters) {
+        if (jpql == null) {
+            compile(entityManager);
+        }
+        TypedQuery<R> query = entityManager.createQuery(jpql, resultClass);
+        for (Map.Entry<String, Object> entry : implicitParameters.entrySet()) {
+            query.setParameter(entry.getKey(), entry.getValue());
+        }
+        for (String parameterName : explicitParameterNames) {
+            if (parameters == null || !parameters.containsKey(parameterName)) {
+                throw new DomainException("预编译查询缺少参数: " + name + "." + parameterName);
+            }
+            query.setParameter(parameterName, parameters.get(parameterName));
+        }
+        return query;
+    }
+
+    private synchronized void compile(EntityManager entityManager) {
+        if (jpql != null) {
+            return;
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> criteriaQuery = criteriaBuilder.createQuery(resultClass);
+        Root<F> root = criteriaQuery.from(fromEntityClass);
+        queryBuilder.build(criteriaBuilder, criteriaQuery, root);
+        Set<String> explicitParameterNames = new HashSet<>();
+        for (ParameterExpression<?> parameter : criteriaQuery.getParameters()) {
+            if (parameter.getName() == null) {
+                throw new DomainException("预编译查询参数必须命名: " + name);
+            }
+            explicitParameterNames.add(parameter.getName());
+        }
+        org.hibernate.query.Query<R> query = entityManager.createQuery(criteriaQuery).unwrap(org.hibernate.query.Query.class);
+        Map<String, Object> implicitParameters = new HashMap<>();
+        for (QueryParameter<?> parameter : query.getParameterMetadata().collectAllParameters()) {
+            if (parameter.getName() == null) {
+                throw new DomainException("预编译查询不支持位置参数: " + name);
+            }
+            if (!explicitParameterNames.contains(parameter.getName())) {
+                implicitParameters.put(parameter.getName(), query.getParameterValue((QueryParameter<Object>) parameter));
+            }
+        }
+        this.implicitParameters = implicitParameters;
+        this.explicitParameterNames = explicitParameterNames;
+        this.jpql = query.getQueryString();
+    }
+}
@@ -0,0 +1,77 @@
+package org.ddd.domain.repo;
+
+import org.hibernate.query.QueryParameter;
+
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 计数估算缓存
+ * 以渲染后的查询语句+绑定参数值为键缓存计数结果，TTL内同一查询条件不再重复执行count
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaCountEstimateCache {
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, CachedCount> cache = new ConcurrentHashMap<>();
+
+    public JpaCountEstimateCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 获取计数，缓存未命中或过期时执行计数查询
+     *
+     * @param countQuery
+     * @return
+     */
+    public long count(TypedQuery<Long> countQuery) {
+        String key = cacheKey(countQuery);
+        long now = System.currentTimeMillis();
+        CachedCount cached = cache.get(key);
+        if (cached != null && cached.expireAt > now) {
+            return cached.count;
+        }
+        long count = countQuery.getSingleResult();
+        if (cache.size() >= maxEntries) {
+            cache.entrySet().removeIf(e -> e.getValue().expireAt <= now);
+            if (cache.size() >= maxEntries) {
+                cache.clear();
+            }
+        }
+        cache.put(key, new CachedCount(count, now + ttlMillis));
+        return count;
+    }
+
+    private String cacheKey(TypedQuery<Long> countQuery) {
+        org.hibernate.query.Query<Long> query = countQuery.unwrap(org.hibernate.query.Query.class);
+        List<QueryParameter<?>> parameters = new ArrayList<>(query.getParameterMetadata().collectAllParameters());
+        parameters.sort(Comparator.comparing(p -> p.getName() != null ? p.getName() : String.valueOf(p.getPosition())));
+        StringBuilder key = new StringBuilder(query.getQueryString());
+        for (QueryParameter<?> parameter : parameters) {
+            key.append('|')
+                    .append(parameter.getName() != null ? parameter.getName() : parameter.getPosition())
+                    .append('=')
+                    .append(Objects.toString(query.getParameterValue((QueryParameter<Object>) parameter)));
+        }
+        return key.toString();
+    }
+
+    private static class CachedCount {
+        private final long count;
+        private final long expireAt;
+
+        private CachedCount(long count, long expireAt) {
+            this.count = count;
+            this.expireAt = expireAt;
+        }
+    }
+}
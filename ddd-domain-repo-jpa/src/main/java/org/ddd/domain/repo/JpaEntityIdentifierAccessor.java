@@ -0,0 +1,144 @@
+package org.ddd.domain.repo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体ID访问器
+ * 启动时基于JPA元模型为每个实体类型生成ID读取句柄，运行期仅需一次Map查找；
+ * 无ID的类型同样缓存（负缓存），避免反复反射查找与异常构造
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Slf4j
+public class JpaEntityIdentifierAccessor {
+    private static final MethodHandle NONE_ID_HANDLE = MethodHandles.dropArguments(
+            MethodHandles.constant(Object.class, null), 0, Object.class);
+    private static final MethodHandle PROXY_ID_HANDLE;
+
+    static {
+        try {
+            PROXY_ID_HANDLE = MethodHandles.lookup().findStatic(JpaEntityIdentifierAccessor.class, "getProxyIdentifier",
+                    MethodType.methodType(Object.class, Object.class));
+        } catch (Exception ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    @Value("${ddd.domain.JpaUnitOfWork.entityGetIdMethod:getId}")
+    private String entityGetIdMethod = "getId";
+
+    private Map<Class<?>, MethodHandle> entityIdHandles = new HashMap<>();
+    private final ConcurrentHashMap<Class<?>, MethodHandle> idHandleCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        Map<Class<?>, MethodHandle> handles = new HashMap<>();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        for (EntityType<?> entityType : entityManager.getMetamodel().getEntities()) {
+            Class<?> entityClass = entityType.getJavaType();
+            if (entityClass == null) {
+                continue;
+            }
+            try {
+                handles.put(entityClass, createEntityIdHandle(entityType, persistenceUnitUtil));
+            } catch (Exception ex) {
+                log.warn("实体ID访问器生成失败 entityClass=" + entityClass.getName(), ex);
+            }
+        }
+        entityIdHandles = handles;
+        idHandleCache.putAll(handles);
+    }
+
+    /**
+     * 获取实体ID
+     * 非实体或无ID的类型返回null
+     *
+     * @param entity
+     * @return
+     */
+    public Object getIdentifier(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        MethodHandle handle = idHandleCache.get(entity.getClass());
+        if (handle == null) {
+            handle = idHandleCache.computeIfAbsent(entity.getClass(), this::resolveIdHandle);
+        }
+        try {
+            return handle.invokeExact(entity);
+        } catch (Throwable throwable) {
+            /* we don't care */
+            return null;
+        }
+    }
+
+    private MethodHandle createEntityIdHandle(EntityType<?> entityType, PersistenceUnitUtil persistenceUnitUtil) throws Exception {
+        if (entityType.hasSingleIdAttribute()) {
+            SingularAttribute<?, ?> idAttribute = entityType.getId(entityType.getIdType().getJavaType());
+            Member member = idAttribute.getJavaMember();
+            MethodHandle handle = null;
+            if (member instanceof Method) {
+                Method method = (Method) member;
+                method.setAccessible(true);
+                handle = MethodHandles.lookup().unreflect(method);
+            } else if (member instanceof Field) {
+                Field field = (Field) member;
+                field.setAccessible(true);
+                handle = MethodHandles.lookup().unreflectGetter(field);
+            }
+            if (handle != null) {
+                return handle.asType(MethodType.methodType(Object.class, Object.class));
+            }
+        }
+        // 复合主键等情况交由JPA实现解析
+        return MethodHandles.lookup().findVirtual(PersistenceUnitUtil.class, "getIdentifier",
+                        MethodType.methodType(Object.class, Object.class))
+                .bindTo(persistenceUnitUtil);
+    }
+
+    private MethodHandle resolveIdHandle(Class<?> entityClass) {
+        if (HibernateProxy.class.isAssignableFrom(entityClass)) {
+            return PROXY_ID_HANDLE;
+        }
+        // 实体子类（如字节码增强类）沿用父类实体的ID句柄
+        for (Class<?> cls = entityClass.getSuperclass(); cls != null && cls != Object.class; cls = cls.getSuperclass()) {
+            MethodHandle handle = entityIdHandles.get(cls);
+            if (handle != null) {
+                return handle;
+            }
+        }
+        // 非JPA元模型管理的类型，回退到约定的ID获取方法
+        try {
+            Method method = entityClass.getMethod(entityGetIdMethod);
+            return MethodHandles.lookup().unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        } catch (Exception _ex) {
+            return NONE_ID_HANDLE;
+        }
+    }
+
+    private static Object getProxyIdentifier(Object proxy) {
+        return ((HibernateProxy) proxy).getHibernateLazyInitializer().getIdentifier();
+    }
+}
@@ -0,0 +1,127 @@
+package org.ddd.domain.repo;
+
+import org.ddd.share.DomainException;
+import org.hibernate.Hibernate;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.Embeddable;
+import javax.persistence.Entity;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * 实体快照
+ * 在持有Session的线程中复制实体已加载的状态，生成与Session无关的游离副本，供异步线程只读使用；
+ * 未初始化的懒加载关联置为null，已初始化的集合复制为普通集合，关联实体及嵌入对象递归复制；
+ * 复制过程不触发懒加载；
+ * Set、Map依赖元素的hashCode/compareTo，待图中实体字段复制完成后再填充，避免以未完成的副本计算哈希或排序
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaEntitySnapshot {
+    private JpaEntitySnapshot() {
+    }
+
+    /**
+     * 生成实体快照
+     *
+     * @param entity
+     * @param <Entity>
+     * @return
+     */
+    public static <Entity> Entity of(Entity entity) {
+        Map<Object, Object> copied = new IdentityHashMap<>();
+        Deque<Runnable> pendingContainers = new ArrayDeque<>();
+        Entity snapshot = (Entity) copy(entity, copied, pendingContainers);
+        while (!pendingContainers.isEmpty()) {
+            pendingContainers.poll().run();
+        }
+        return snapshot;
+    }
+
+    private static Object copy(Object value, Map<Object, Object> copied, Deque<Runnable> pendingContainers) {
+        if (value == null) {
+            return null;
+        }
+        if (!Hibernate.isInitialized(value)) {
+            return null;
+        }
+        if (value instanceof HibernateProxy) {
+            value = ((HibernateProxy) value).getHibernateLazyInitializer().getImplementation();
+        }
+        if (copied.containsKey(value)) {
+            return copied.get(value);
+        }
+        if (value instanceof PersistentCollection || value instanceof Collection || value instanceof Map) {
+            return copyContainer(value, copied, pendingContainers);
+        }
+        Class<?> clazz = value.getClass();
+        if (!clazz.isAnnotationPresent(Entity.class) && !clazz.isAnnotationPresent(Embeddable.class)) {
+            return value;
+        }
+        Object snapshot;
+        try {
+            snapshot = BeanUtils.instantiateClass(ReflectionUtils.accessibleConstructor(clazz));
+        } catch (NoSuchMethodException e) {
+            throw new DomainException("实体快照需要无参构造函数: " + clazz.getName(), e);
+        }
+        copied.put(value, snapshot);
+        Object source = value;
+        ReflectionUtils.doWithFields(clazz, field -> {
+            ReflectionUtils.makeAccessible(field);
+            field.set(snapshot, copy(field.get(source), copied, pendingContainers));
+        }, JpaEntitySnapshot::isCopyable);
+        return snapshot;
+    }
+
+    private static Object copyContainer(Object container, Map<Object, Object> copied, Deque<Runnable> pendingContainers) {
+        if (container instanceof Map) {
+            Map<Object, Object> snapshot = container instanceof SortedMap
+                    ? new TreeMap<>(((SortedMap) container).comparator())
+                    : new LinkedHashMap<>();
+            copied.put(container, snapshot);
+            List<Map.Entry<?, ?>> entries = new ArrayList<>(((Map<?, ?>) container).entrySet());
+            pendingContainers.add(() -> {
+                List<Object[]> entryCopies = new ArrayList<>(entries.size());
+                for (Map.Entry<?, ?> entry : entries) {
+                    entryCopies.add(new Object[]{copy(entry.getKey(), copied, pendingContainers), copy(entry.getValue(), copied, pendingContainers)});
+                }
+                for (Object[] entryCopy : entryCopies) {
+                    snapshot.put(entryCopy[0], entryCopy[1]);
+                }
+            });
+            return snapshot;
+        }
+        if (!(container instanceof Set)) {
+            List<Object> snapshot = new ArrayList<>();
+            copied.put(container, snapshot);
+            for (Object element : (Collection<?>) container) {
+                snapshot.add(copy(element, copied, pendingContainers));
+            }
+            return snapshot;
+        }
+        Set<Object> snapshot = container instanceof SortedSet
+                ? new TreeSet<>(((SortedSet) container).comparator())
+                : new LinkedHashSet<>();
+        copied.put(container, snapshot);
+        List<Object> elements = new ArrayList<>((Collection<?>) container);
+        pendingContainers.add(() -> {
+            List<Object> elementCopies = new ArrayList<>(elements.size());
+            for (Object element : elements) {
+                elementCopies.add(copy(element, copied, pendingContainers));
+            }
+            snapshot.addAll(elementCopies);
+        });
+        return snapshot;
+    }
+
+    private static boolean isCopyable(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !field.isSynthetic();
+    }
+}
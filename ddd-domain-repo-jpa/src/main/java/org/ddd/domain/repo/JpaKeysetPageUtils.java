@@ -0,0 +1,203 @@
+package org.ddd.domain.repo;
+
+import com.alibaba.fastjson.JSON;
+import org.ddd.share.DomainException;
+import org.ddd.share.ListOrder;
+import org.ddd.share.PageData;
+import org.ddd.share.PageParam;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 游标（keyset）分页工具类
+ * 按排序字段+主键构造 (f1, f2, ..., id) > (v1, v2, ..., vid) 的查找条件，查询代价与页深无关；
+ * 游标为上一页末条记录排序字段值的Base64编码，对调用方不透明；
+ * 排序字段需非空，且应有覆盖(条件字段, 排序字段, 主键)的索引
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaKeysetPageUtils {
+
+    /**
+     * 是否游标分页
+     *
+     * @param pageParam
+     * @return
+     */
+    public static boolean isKeyset(PageParam pageParam) {
+        return pageParam != null && pageParam.getCursor() != null;
+    }
+
+    /**
+     * 获取实体主键属性名
+     *
+     * @param entityManager
+     * @param entityClass
+     * @return
+     */
+    public static String getIdAttributeName(EntityManager entityManager, Class<?> entityClass) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        if (!entityType.hasSingleIdAttribute()) {
+            throw new DomainException("游标分页不支持复合主键实体: " + entityClass.getName());
+        }
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    /**
+     * 解析游标分页排序，末尾追加主键升序保证排序唯一
+     *
+     * @param sort
+     * @param idAttributeName
+     * @return
+     */
+    public static List<ListOrder> resolveOrders(List<ListOrder> sort, String idAttributeName) {
+        List<ListOrder> orders = new ArrayList<>();
+        boolean containsId = false;
+        if (sort != null) {
+            for (ListOrder order : sort) {
+                orders.add(order);
+                containsId |= Objects.equals(order.getField(), idAttributeName);
+            }
+        }
+        if (!containsId) {
+            ListOrder idOrder = new ListOrder();
+            idOrder.setField(idAttributeName);
+            idOrder.setDesc(false);
+            orders.add(idOrder);
+        }
+        return orders;
+    }
+
+    /**
+     * 转换排序
+     *
+     * @param cb
+     * @param root
+     * @param orders
+     * @return
+     */
+    public static List<Order> toOrders(CriteriaBuilder cb, Root<?> root, List<ListOrder> orders) {
+        List<Order> result = new ArrayList<>(orders.size());
+        for (ListOrder order : orders) {
+            Path<?> path = root.get(order.getField());
+            result.add(isDesc(order) ? cb.desc(path) : cb.asc(path));
+        }
+        return result;
+    }
+
+    /**
+     * 构造游标查找条件，首页返回null
+     *
+     * @param cb
+     * @param root
+     * @param orders
+     * @param cursor
+     * @return
+     */
+    public static Predicate seekPredicate(CriteriaBuilder cb, Root<?> root, List<ListOrder> orders, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        List<String> values = decodeCursor(cursor);
+        if (values.size() != orders.size()) {
+            throw new DomainException("游标与排序字段不匹配");
+        }
+        List<Predicate> disjunction = new ArrayList<>(orders.size());
+        List<Predicate> equals = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Path<Comparable> path = root.get(orders.get(i).getField());
+            Comparable value = (Comparable) JSON.parseObject(values.get(i), path.getJavaType());
+            List<Predicate> conjunction = new ArrayList<>(equals);
+            conjunction.add(isDesc(orders.get(i))
+                    ? cb.lessThan((Expression<Comparable>) path, value)
+                    : cb.greaterThan((Expression<Comparable>) path, value));
+            disjunction.add(cb.and(conjunction.toArray(new Predicate[0])));
+            equals.add(cb.equal(path, value));
+        }
+        return cb.or(disjunction.toArray(new Predicate[0]));
+    }
+
+    /**
+     * 合并查询条件
+     *
+     * @param cb
+     * @param restriction
+     * @param seek
+     * @return
+     */
+    public static Predicate and(CriteriaBuilder cb, Predicate restriction, Predicate seek) {
+        if (restriction == null) {
+            return seek;
+        }
+        if (seek == null) {
+            return restriction;
+        }
+        return cb.and(restriction, seek);
+    }
+
+    /**
+     * 生成游标分页结果
+     *
+     * @param pageParam
+     * @param results   按pageSize+1条查询的结果
+     * @param orders
+     * @param totalCount
+     * @param <T>
+     * @return
+     */
+    public static <T> PageData<T> toPageData(PageParam pageParam, List<T> results, List<ListOrder> orders, Long totalCount) {
+        int pageSize = pageParam.getPageSize();
+        String nextCursor = null;
+        if (results.size() > pageSize) {
+            results = new ArrayList<>(results.subList(0, pageSize));
+            nextCursor = encodeCursor(results.get(pageSize - 1), orders);
+        }
+        return PageData.createKeyset(pageSize, totalCount, results, nextCursor);
+    }
+
+    /**
+     * 以记录排序字段值生成游标
+     *
+     * @param last
+     * @param orders
+     * @return
+     */
+    public static String encodeCursor(Object last, List<ListOrder> orders) {
+        List<String> values = new ArrayList<>(orders.size());
+        for (ListOrder order : orders) {
+            Object value = PropertyAccessorFactory.forDirectFieldAccess(last).getPropertyValue(order.getField());
+            if (value == null) {
+                throw new DomainException("游标分页排序字段不能为空: " + order.getField());
+            }
+            values.add(JSON.toJSONString(value));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(JSON.toJSONString(values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static List<String> decodeCursor(String cursor) {
+        try {
+            return JSON.parseArray(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8), String.class);
+        } catch (Exception ex) {
+            throw new DomainException("游标无效");
+        }
+    }
+
+    private static boolean isDesc(ListOrder order) {
+        return Boolean.TRUE.equals(order.getDesc());
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 
 import java.util.function.Function;
@@ -28,6 +29,18 @@ public class JpaPageUtils {
         return PageData.create(page.getPageable().getPageSize(), page.getPageable().getPageNumber() + 1, page.getTotalElements(), page.getContent());
     }
 
+    /**
+     * 从JPA Slice转换（不计数）
+     *
+     * @return
+     */
+    public static <T> PageData<T> fromSpringData(Slice<T> slice) {
+        if (slice instanceof Page) {
+            return fromSpringData((Page<T>) slice);
+        }
+        return PageData.createWithHasNext(slice.getPageable().getPageSize(), slice.getPageable().getPageNumber() + 1, slice.getContent(), slice.hasNext());
+    }
+
     /**
      * 从JPA转换
      *
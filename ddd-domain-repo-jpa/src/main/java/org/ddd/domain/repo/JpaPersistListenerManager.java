@@ -2,11 +2,20 @@ package org.ddd.domain.repo;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 
+import javax.annotation.PreDestroy;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * @author qiaohe
@@ -16,45 +25,127 @@ import java.util.Map;
 @Slf4j
 public class JpaPersistListenerManager implements PersistListenerManager {
     private final List<AbstractJpaPersistListener> persistListeners;
+    private final JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor;
 
     private Map<Class, List<AbstractJpaPersistListener>> persistListenersMap;
 
+    /**
+     * 异步监听通道数
+     */
+    @Value("${ddd.domain.JpaPersistListener.async.lanes:4}")
+    private int asyncLanes = 4;
+    /**
+     * 异步监听单通道队列容量，队列满时提交线程阻塞等待（背压）
+     */
+    @Value("${ddd.domain.JpaPersistListener.async.queueCapacity:1000}")
+    private int asyncQueueCapacity = 1000;
+    @Value("${ddd.domain.JpaPersistListener.async.shutdownAwaitSeconds:30}")
+    private int asyncShutdownAwaitSeconds = 30;
+    /**
+     * 异步监听延迟告警阈值（毫秒），超过时输出告警日志（含队列深度及计数），每分钟至多一次；0不告警
+     */
+    @Value("${ddd.domain.JpaPersistListener.async.lagWarnThresholdMillis:1000}")
+    private long asyncLagWarnThresholdMillis = 1000;
+    private static final long ASYNC_LAG_WARN_INTERVAL_MILLIS = 60000L;
+    private final AtomicLong asyncLastLagWarnTime = new AtomicLong(0);
+
+    private ThreadPoolExecutor[] asyncLaneExecutors = null;
+    private final AtomicLong asyncSubmittedCount = new AtomicLong(0);
+    private final AtomicLong asyncCompletedCount = new AtomicLong(0);
+    private final AtomicLong asyncFailedCount = new AtomicLong(0);
+    private final AtomicLong asyncLastLagMillis = new AtomicLong(0);
+    private final AtomicLong asyncMaxLagMillis = new AtomicLong(0);
+
     private void init() {
         if (persistListenersMap == null) {
             synchronized (this) {
                 if (persistListenersMap == null) {
-                    persistListenersMap = new HashMap<>();
+                    Map<Class, List<AbstractJpaPersistListener>> persistListenersMap = new HashMap<>();
                     persistListeners.sort((a, b) ->
                             a.getClass().getAnnotation(Order.class).value() - b.getClass().getAnnotation(Order.class).value()
                     );
+                    boolean hasAsyncListener = false;
                     for (AbstractJpaPersistListener persistListener : persistListeners) {
                         if (!persistListenersMap.containsKey(persistListener.forEntityClass())) {
                             persistListenersMap.put(persistListener.forEntityClass(), new java.util.ArrayList<AbstractJpaPersistListener>());
                         }
                         List<AbstractJpaPersistListener> persistListenerList = persistListenersMap.get(persistListener.forEntityClass());
                         persistListenerList.add(persistListener);
+                        hasAsyncListener |= persistListener.async();
+                    }
+                    if (hasAsyncListener) {
+                        initAsyncLanes();
                     }
+                    this.persistListenersMap = persistListenersMap;
                 }
             }
         }
     }
 
+    private void initAsyncLanes() {
+        int lanes = Math.max(1, asyncLanes);
+        asyncLaneExecutors = new ThreadPoolExecutor[lanes];
+        for (int i = 0; i < lanes; i++) {
+            String threadName = "jpa-persist-listener-" + i;
+            asyncLaneExecutors[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, asyncQueueCapacity)),
+                    r -> {
+                        Thread thread = new Thread(r, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (r, executor) -> {
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("持久化监听异步通道已关闭");
+                        }
+                        try {
+                            // 背压：队列满时阻塞提交线程
+                            executor.getQueue().put(r);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("持久化监听异步提交中断", e);
+                        }
+                        // 入队期间通道关闭，工作线程可能已退出；任务仍在队列中则撤回，由调用方处理
+                        if (executor.isShutdown() && executor.getQueue().remove(r)) {
+                            throw new RejectedExecutionException("持久化监听异步通道已关闭");
+                        }
+                    });
+        }
+    }
+
     /**
-     * onCreate & onUpdate & onDelete
+     * 选择异步通道，同一实体固定同一通道
+     *
      * @param entity
-     * @param <Entity>
+     * @return
      */
-    @Override
-    public <Entity> void onChange(Entity entity) {
+    private ThreadPoolExecutor selectLane(Object entity) {
+        Object id = jpaEntityIdentifierAccessor.getIdentifier(entity);
+        int hash = id == null
+                ? System.identityHashCode(entity)
+                : Objects.hash(entity.getClass().getName(), id);
+        return asyncLaneExecutors[(hash & Integer.MAX_VALUE) % asyncLaneExecutors.length];
+    }
+
+    private <Entity> void dispatch(Entity entity, String action, BiConsumer<AbstractJpaPersistListener, Entity> handler) {
         init();
         List<AbstractJpaPersistListener> listeners = persistListenersMap.get(entity.getClass());
         if (listeners != null) {
+            Entity snapshot = null;
             for (AbstractJpaPersistListener listener :
                     listeners) {
+                if (listener.async()) {
+                    if (snapshot == null) {
+                        // 异步通道不持有Session，仅交付已提交状态的游离快照
+                        snapshot = JpaEntitySnapshot.of(entity);
+                    }
+                    dispatchAsync(snapshot, action, listener, handler);
+                    continue;
+                }
                 try {
-                    listener.onChange(entity);
+                    handler.accept(listener, entity);
                 } catch (Exception ex){
-                    log.error("onPersist 异常", ex);
+                    log.error(action + " 异常", ex);
                     if(listener.throwOnException()){
                         throw ex;
                     }
@@ -63,62 +154,140 @@ public class JpaPersistListenerManager implements PersistListenerManager {
         }
     }
 
-    @Override
-    public <Entity> void onCreate(Entity entity) {
-        init();
-        List<AbstractJpaPersistListener> listeners = persistListenersMap.get(entity.getClass());
-        if (listeners != null) {
-            for (AbstractJpaPersistListener listener :
-                    listeners) {
-                try {
-                    listener.onCreate(entity);
-                } catch (Exception ex){
-                    log.error("onCreate 异常", ex);
-                    if(listener.throwOnException()){
-                        throw ex;
-                    }
-                }
+    private <Entity> void dispatchAsync(Entity entity, String action, AbstractJpaPersistListener listener, BiConsumer<AbstractJpaPersistListener, Entity> handler) {
+        long enqueueTime = System.currentTimeMillis();
+        asyncSubmittedCount.incrementAndGet();
+        Runnable task = () -> {
+            long lag = System.currentTimeMillis() - enqueueTime;
+            asyncLastLagMillis.set(lag);
+            asyncMaxLagMillis.accumulateAndGet(lag, Math::max);
+            warnIfLagging(lag);
+            try {
+                handler.accept(listener, entity);
+            } catch (Exception ex) {
+                asyncFailedCount.incrementAndGet();
+                log.error(action + " 异步异常", ex);
+            } finally {
+                asyncCompletedCount.incrementAndGet();
             }
+        };
+        try {
+            selectLane(entity).execute(task);
+        } catch (RejectedExecutionException ex) {
+            // 通道已关闭（应用停止中），在当前线程执行，避免丢失
+            log.warn(action + " 异步通道不可用，同步执行: " + ex.getMessage());
+            task.run();
         }
     }
 
-    @Override
-    public <Entity> void onUpdate(Entity entity) {
-        init();
-        List<AbstractJpaPersistListener> listeners = persistListenersMap.get(entity.getClass());
-        if (listeners != null) {
-            for (AbstractJpaPersistListener listener :
-                    listeners) {
-                try {
-                    listener.onUpdate(entity);
-                } catch (Exception ex){
-                    log.error("onUpdate 异常", ex);
-                    if(listener.throwOnException()){
-                        throw ex;
-                    }
-                }
-            }
+    private void warnIfLagging(long lag) {
+        if (asyncLagWarnThresholdMillis <= 0 || lag <= asyncLagWarnThresholdMillis) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long lastWarnTime = asyncLastLagWarnTime.get();
+        if (now - lastWarnTime < ASYNC_LAG_WARN_INTERVAL_MILLIS || !asyncLastLagWarnTime.compareAndSet(lastWarnTime, now)) {
+            return;
         }
+        log.warn("持久化监听异步延迟过高: lag={}ms, maxLag={}ms, queueDepth={}, submitted={}, completed={}, failed={}",
+                lag, getAsyncMaxLagMillis(), getAsyncQueueDepth(), getAsyncSubmittedCount(), getAsyncCompletedCount(), getAsyncFailedCount());
+    }
 
+    /**
+     * onCreate & onUpdate & onDelete
+     * @param entity
+     * @param <Entity>
+     */
+    @Override
+    public <Entity> void onChange(Entity entity) {
+        dispatch(entity, "onPersist", (listener, e) -> listener.onChange(e));
+    }
+
+    @Override
+    public <Entity> void onCreate(Entity entity) {
+        dispatch(entity, "onCreate", (listener, e) -> listener.onCreate(e));
+    }
+
+    @Override
+    public <Entity> void onUpdate(Entity entity) {
+        dispatch(entity, "onUpdate", (listener, e) -> listener.onUpdate(e));
     }
 
     @Override
     public <Entity> void onDelete(Entity entity) {
-        init();
-        List<AbstractJpaPersistListener> listeners = persistListenersMap.get(entity.getClass());
-        if (listeners != null) {
-            for (AbstractJpaPersistListener listener :
-                    listeners) {
-                try {
-                    listener.onDelete(entity);
-                } catch (Exception ex){
-                    log.error("onDelete 异常", ex);
-                    if(listener.throwOnException()){
-                        throw ex;
-                    }
+        dispatch(entity, "onDelete", (listener, e) -> listener.onDelete(e));
+    }
+
+    /**
+     * 异步监听待执行任务数
+     *
+     * @return
+     */
+    public int getAsyncQueueDepth() {
+        ThreadPoolExecutor[] executors = asyncLaneExecutors;
+        if (executors == null) {
+            return 0;
+        }
+        int depth = 0;
+        for (ThreadPoolExecutor executor : executors) {
+            depth += executor.getQueue().size();
+        }
+        return depth;
+    }
+
+    /**
+     * 最近一次异步监听从提交到开始执行的延迟（毫秒）
+     *
+     * @return
+     */
+    public long getAsyncLastLagMillis() {
+        return asyncLastLagMillis.get();
+    }
+
+    /**
+     * 异步监听从提交到开始执行的最大延迟（毫秒）
+     *
+     * @return
+     */
+    public long getAsyncMaxLagMillis() {
+        return asyncMaxLagMillis.get();
+    }
+
+    public long getAsyncSubmittedCount() {
+        return asyncSubmittedCount.get();
+    }
+
+    public long getAsyncCompletedCount() {
+        return asyncCompletedCount.get();
+    }
+
+    public long getAsyncFailedCount() {
+        return asyncFailedCount.get();
+    }
+
+    /**
+     * 停止接收异步任务，并等待已提交任务执行完毕
+     */
+    @PreDestroy
+    public void shutdown() {
+        ThreadPoolExecutor[] executors = asyncLaneExecutors;
+        if (executors == null) {
+            return;
+        }
+        for (ThreadPoolExecutor executor : executors) {
+            executor.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(asyncShutdownAwaitSeconds);
+        for (ThreadPoolExecutor executor : executors) {
+            try {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !executor.awaitTermination(remaining, TimeUnit.MILLISECONDS)) {
+                    log.warn("持久化监听异步通道关闭超时，未执行任务数={}", executor.getQueue().size());
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
         }
-
     }
 }
@@ -4,9 +4,19 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.ddd.domain.event.*;
-import org.ddd.domain.event.annotation.DomainEvent;
 import org.ddd.share.DomainException;
+import org.ddd.share.ListOrder;
+import org.ddd.share.PageData;
+import org.ddd.share.PageParam;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
 import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.Type;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
@@ -17,15 +27,22 @@ import org.springframework.transaction.event.TransactionalEventListener;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.ddd.share.Constants.CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_AWAIT;
+import static org.ddd.share.Constants.CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_ENABLE;
 import static org.ddd.share.Constants.CONFIG_KEY_4_SVC_NAME;
 
 /**
@@ -43,121 +60,131 @@ public class JpaUnitOfWork implements UnitOfWork {
     private final EventRecordRepository eventRecordRepository;
     private final JpaSpecificationManager jpaSpecificationManager;
     private final JpaPersistListenerManager jpaPersistListenerManager;
-
-    private ThreadLocal<Set<Object>> persistedEntitiesThreadLocal = new ThreadLocal<>();
-    private ThreadLocal<Set<Object>> removedEntitiesThreadLocal = new ThreadLocal<>();
-    private ThreadLocal<EntityPersisttedEvent> entityPersisttedEventThreadLocal = ThreadLocal.withInitial(() -> new EntityPersisttedEvent(instance, new HashSet<>(), new HashSet<>(), new HashSet<>()));
+    private final JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor;
 
     public void persist(Object entity) {
-        if (persistedEntitiesThreadLocal.get() == null) {
-            persistedEntitiesThreadLocal.set(new HashSet<>());
-        } else if (persistedEntitiesThreadLocal.get().contains(entity)) {
-            return;
-        }
-        persistedEntitiesThreadLocal.get().add(entity);
+        UnitOfWorkContext.current().persist(entity);
     }
 
     public void remove(Object entity) {
-        if (removedEntitiesThreadLocal.get() == null) {
-            removedEntitiesThreadLocal.set(new HashSet<>());
-        } else if (removedEntitiesThreadLocal.get().contains(entity)) {
-            return;
-        }
-        removedEntitiesThreadLocal.get().add(entity);
+        UnitOfWorkContext.current().remove(entity);
     }
 
     public void save() {
         save(Propagation.REQUIRED);
     }
 
-    @Value("${ddd.domain.JpaUnitOfWork.entityGetIdMethod:getId}")
-    private String entityGetIdMethod = null;
-
     public void save(Propagation propagation) {
-        Set<Object> persistEntityList = null;
-        if (persistedEntitiesThreadLocal.get() != null) {
-            persistEntityList = persistedEntitiesThreadLocal.get().stream().collect(Collectors.toSet());
-            persistedEntitiesThreadLocal.get().clear();
-        } else {
-            persistEntityList = new HashSet<>();
-        }
-        Set<Object> deleteEntityList = null;
-        if (removedEntitiesThreadLocal.get() != null) {
-            deleteEntityList = removedEntitiesThreadLocal.get().stream().collect(Collectors.toSet());
-            removedEntitiesThreadLocal.get().clear();
-        } else {
-            deleteEntityList = new HashSet<>();
-        }
-        for (Object entity : persistenceContextEntities()) {
-            // 如果不在删除列表中，则加入保存列表
-            if (!deleteEntityList.contains(entity)) {
-                persistEntityList.add(entity);
+        UnitOfWorkContext context = UnitOfWorkContext.current();
+        context.beginSave();
+        try {
+            Set<Object> persistEntityList = context.drainPersistedEntities();
+            Set<Object> deleteEntityList = context.drainRemovedEntities();
+            for (Object entity : persistenceContextEntities()) {
+                // 如果不在删除列表中，则加入保存列表
+                if (!deleteEntityList.contains(entity)) {
+                    persistEntityList.add(entity);
+                }
             }
-        }
-        specifyEntitesBeforeTransaction(persistEntityList);
-        Set<Object>[] saveAndDeleteEntityList = new Set[]{persistEntityList, deleteEntityList};
-        save(input -> {
-            Set<Object> persistEntities = input[0];
-            Set<Object> deleteEntities = input[1];
-            specifyEntitesInTransaction(persistEntities);
-            boolean flush = false;
-            List<Object> refreshEntityList = null;
-            if (persistEntities != null && !persistEntities.isEmpty()) {
-                flush = true;
-                for (Object entity : persistEntities) {
-                    Object id = null;
-                    try {
-                        id = entity.getClass().getMethod(entityGetIdMethod).invoke(entity);
-                    } catch (Exception _ex) {
-                        /* we don't care */
-                    }
-                    if (id != null) {
-                        if (!getEntityManager().contains(entity)) {
-                            getEntityManager().merge(entity);
-                        }
-                        entityPersisttedEventThreadLocal.get().getUpdatedEntities().add(entity);
-                    } else {
-                        if (!getEntityManager().contains(entity)) {
-                            getEntityManager().persist(entity);
-                            if (refreshEntityList == null) {
-                                refreshEntityList = new ArrayList<>();
+            specifyEntitesBeforeTransaction(persistEntityList);
+            Set<Object>[] saveAndDeleteEntityList = new Set[]{persistEntityList, deleteEntityList};
+            save(input -> {
+                Set<Object> persistEntities = input[0];
+                Set<Object> deleteEntities = input[1];
+                specifyEntitesInTransaction(persistEntities);
+                boolean flush = false;
+                List<Object> refreshEntityList = null;
+                EntityPersisttedEvent entityPersisttedEvent = new EntityPersisttedEvent(this, new HashSet<>(), new HashSet<>(), new HashSet<>());
+                if (persistEntities != null && !persistEntities.isEmpty()) {
+                    flush = true;
+                    for (Object entity : batchSave ? groupByEntityClass(persistEntities) : persistEntities) {
+                        Object id = jpaEntityIdentifierAccessor.getIdentifier(entity);
+                        if (id != null) {
+                            if (!getEntityManager().contains(entity)) {
+                                getEntityManager().merge(entity);
                             }
-                            refreshEntityList.add(entity);
+                            entityPersisttedEvent.getUpdatedEntities().add(entity);
+                        } else {
+                            if (!getEntityManager().contains(entity)) {
+                                getEntityManager().persist(entity);
+                                if (isRefreshAfterCreate(entity)) {
+                                    if (refreshEntityList == null) {
+                                        refreshEntityList = new ArrayList<>();
+                                    }
+                                    refreshEntityList.add(entity);
+                                }
+                            }
+                            entityPersisttedEvent.getCreatedEntities().add(entity);
                         }
-                        entityPersisttedEventThreadLocal.get().getCreatedEntities().add(entity);
                     }
                 }
-            }
-            if (deleteEntities != null && !deleteEntities.isEmpty()) {
-                flush = true;
-                for (Object entity : deleteEntities) {
-                    if (getEntityManager().contains(entity)) {
-                        getEntityManager().remove(entity);
-                    } else {
-                        getEntityManager().remove(getEntityManager().merge(entity));
+                if (deleteEntities != null && !deleteEntities.isEmpty()) {
+                    flush = true;
+                    for (Object entity : batchSave ? groupByEntityClass(deleteEntities) : deleteEntities) {
+                        if (getEntityManager().contains(entity)) {
+                            getEntityManager().remove(entity);
+                        } else {
+                            getEntityManager().remove(getEntityManager().merge(entity));
+                        }
+                        entityPersisttedEvent.getDeletedEntities().add(entity);
                     }
-                    entityPersisttedEventThreadLocal.get().getDeletedEntities().add(entity);
                 }
-            }
-            if (flush) {
-                getEntityManager().flush();
-                if (refreshEntityList != null && !refreshEntityList.isEmpty()) {
-                    for (Object entity : refreshEntityList) {
-                        getEntityManager().refresh(entity);
+                if (flush) {
+                    getEntityManager().flush();
+                    if (refreshEntityList != null && !refreshEntityList.isEmpty()) {
+                        for (Object entity : refreshEntityList) {
+                            getEntityManager().refresh(entity);
+                        }
                     }
+                    applicationEventPublisher.publishEvent(entityPersisttedEvent);
                 }
-                applicationEventPublisher.publishEvent(entityPersisttedEventThreadLocal.get().clone());
-                entityPersisttedEventThreadLocal.get().reset();
-            }
-            publishTransactionEvent();
-            return null;
-        }, saveAndDeleteEntityList, propagation);
+                publishTransactionEvent();
+                return null;
+            }, saveAndDeleteEntityList, propagation);
+        } finally {
+            context.endSave();
+        }
+    }
+
+    /**
+     * 批量保存模式
+     * 按实体类型分组（类型间按类名排序）依次提交持久化操作，配合hibernate.jdbc.batch_size、
+     * hibernate.order_inserts、hibernate.order_updates使同类型的insert/update合并为JDBC批量语句；
+     * 注意：IDENTITY主键策略的实体插入无法批量
+     */
+    @Value("${ddd.domain.JpaUnitOfWork.batchSave.enable:false}")
+    private boolean batchSave = false;
+
+    /**
+     * 批量保存模式下，新增后仍需refresh（回读数据库默认值等）的实体类型，类名或全限定类名，逗号分隔
+     */
+    @Value("${ddd.domain.JpaUnitOfWork.batchSave.refreshEntities:}")
+    private Set<String> batchSaveRefreshEntities = Collections.emptySet();
+
+    protected boolean isRefreshAfterCreate(Object entity) {
+        if (!batchSave) {
+            return true;
+        }
+        Class<?> entityClass = entity.getClass();
+        return batchSaveRefreshEntities.contains(entityClass.getName())
+                || batchSaveRefreshEntities.contains(entityClass.getSimpleName());
+    }
+
+    protected List<Object> groupByEntityClass(Set<Object> entities) {
+        Map<String, List<Object>> entityGroups = new TreeMap<>();
+        for (Object entity : entities) {
+            entityGroups.computeIfAbsent(entity.getClass().getName(), k -> new ArrayList<>()).add(entity);
+        }
+        List<Object> result = new ArrayList<>(entities.size());
+        entityGroups.values().forEach(result::addAll);
+        return result;
     }
 
     public void reset() {
-        persistedEntitiesThreadLocal.remove();
-        removedEntitiesThreadLocal.remove();
-        entityPersisttedEventThreadLocal.get().reset();
+        UnitOfWorkContext context = UnitOfWorkContext.peek();
+        if (context != null) {
+            context.resetEntities();
+        }
     }
 
     @Getter
@@ -262,6 +289,36 @@ public class JpaUnitOfWork implements UnitOfWork {
         return results;
     }
 
+    /**
+     * 自定义查询
+     * 游标分页（keyset），按pageParam.sort+主键排序，查询代价与页深无关；不计数
+     * queryBuilder中设置的排序将被覆盖；结果类型需包含排序字段及主键字段（同名属性）
+     *
+     * @param resultClass
+     * @param fromEntityClass
+     * @param queryBuilder
+     * @param pageParam       cursor为null或空字符串时查询首页
+     * @param <R>
+     * @param <F>
+     * @return
+     */
+    public <R, F> PageData<R> queryPage(Class<R> resultClass, Class<F> fromEntityClass, QueryBuilder<R, F> queryBuilder, PageParam pageParam) {
+        List<ListOrder> orders = JpaKeysetPageUtils.resolveOrders(pageParam.getSort(), JpaKeysetPageUtils.getIdAttributeName(getEntityManager(), fromEntityClass));
+        CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<R> criteriaQuery = criteriaBuilder.createQuery(resultClass);
+        Root<F> root = criteriaQuery.from(fromEntityClass);
+        queryBuilder.build(criteriaBuilder, criteriaQuery, root);
+        Predicate predicate = JpaKeysetPageUtils.and(criteriaBuilder, criteriaQuery.getRestriction(), JpaKeysetPageUtils.seekPredicate(criteriaBuilder, root, orders, pageParam.getCursor()));
+        if (predicate != null) {
+            criteriaQuery.where(predicate);
+        }
+        criteriaQuery.orderBy(JpaKeysetPageUtils.toOrders(criteriaBuilder, root, orders));
+        List<R> results = getEntityManager().createQuery(criteriaQuery)
+                .setMaxResults(pageParam.getPageSize() + 1)
+                .getResultList();
+        return JpaKeysetPageUtils.toPageData(pageParam, results, orders, null);
+    }
+
     /**
      * 自定义查询
      * 返回查询计数
@@ -280,6 +337,268 @@ public class JpaUnitOfWork implements UnitOfWork {
         return total;
     }
 
+    private final Map<String, JpaCompiledQuery> compiledQueries = new ConcurrentHashMap<>();
+
+    /**
+     * 注册预编译查询
+     * 查询条件中每次调用变化的值需使用命名参数 cb.parameter(Class, name) 声明；
+     * 首次执行时渲染为JPQL并缓存，后续执行不再构建Criteria
+     *
+     * @param name
+     * @param resultClass
+     * @param fromEntityClass
+     * @param queryBuilder
+     * @param <R>
+     * @param <F>
+     */
+    public <R, F> void registerQuery(String name, Class<R> resultClass, Class<F> fromEntityClass, QueryBuilder<R, F> queryBuilder) {
+        compiledQueries.put(name, new JpaCompiledQuery<>(name, resultClass, fromEntityClass, queryBuilder));
+    }
+
+    protected <R> TypedQuery<R> createCompiledQuery(String name, Map<String, Object> parameters) {
+        JpaCompiledQuery<R, ?> compiledQuery = compiledQueries.get(name);
+        if (compiledQuery == null) {
+            throw new DomainException("预编译查询未注册: " + name);
+        }
+        return compiledQuery.createQuery(getEntityManager(), parameters);
+    }
+
+    /**
+     * 预编译查询
+     * 期待返回一条记录，数据异常返回0条或多条记录将抛出异常
+     *
+     * @param name
+     * @param parameters
+     * @param <R>
+     * @return
+     */
+    public <R> R queryOne(String name, Map<String, Object> parameters) {
+        TypedQuery<R> query = createCompiledQuery(name, parameters);
+        return query.getSingleResult();
+    }
+
+    /**
+     * 预编译查询
+     * 返回0条或多条记录
+     *
+     * @param name
+     * @param parameters
+     * @param <R>
+     * @return
+     */
+    public <R> List<R> queryList(String name, Map<String, Object> parameters) {
+        TypedQuery<R> query = createCompiledQuery(name, parameters);
+        List<R> results = query.getResultList();
+        if (results.size() > RETRIEVE_COUNT_WARN_THRESHOLD) {
+            log.warn("查询记录数过多: retrieve_count=" + results.size());
+        }
+        return results;
+    }
+
+    /**
+     * 预编译查询
+     * 如果存在符合筛选条件的记录，返回第一条记录
+     *
+     * @param name
+     * @param parameters
+     * @param <R>
+     * @return
+     */
+    public <R> Optional<R> queryFirst(String name, Map<String, Object> parameters) {
+        TypedQuery<R> query = createCompiledQuery(name, parameters);
+        List<R> results = query
+                .setFirstResult(0)
+                .setMaxResults(1)
+                .getResultList();
+        return results.stream().findFirst();
+    }
+
+    /**
+     * 预编译查询
+     * 获取分页列表
+     *
+     * @param name
+     * @param parameters
+     * @param pageIndex
+     * @param pageSize
+     * @param <R>
+     * @return
+     */
+    public <R> List<R> queryPage(String name, Map<String, Object> parameters, int pageIndex, int pageSize) {
+        TypedQuery<R> query = createCompiledQuery(name, parameters);
+        List<R> results = query
+                .setFirstResult(pageSize * pageIndex).setMaxResults(pageSize)
+                .getResultList();
+        return results;
+    }
+
+    /**
+     * 预编译查询
+     * 返回查询计数，注册时resultClass需为Long
+     *
+     * @param name
+     * @param parameters
+     * @return
+     */
+    public long count(String name, Map<String, Object> parameters) {
+        TypedQuery<Long> query = createCompiledQuery(name, parameters);
+        return query.getSingleResult().longValue();
+    }
+
+    /**
+     * 流式查询每次从数据库抓取的行数
+     * 注意：MySQL驱动默认一次性读取全部结果集，需在连接串配置useCursorFetch=true使fetchSize生效
+     */
+    @Value("${ddd.domain.JpaUnitOfWork.stream.fetchSize:1000}")
+    private int streamFetchSize = 1000;
+    /**
+     * 流式查询每读取多少行将已读取实体移出持久化上下文
+     */
+    @Value("${ddd.domain.JpaUnitOfWork.stream.clearInterval:1000}")
+    private int streamClearInterval = 1000;
+
+    /**
+     * 自定义查询
+     * 流式返回记录，基于游标逐行读取，以只读模式加载并定期将已读取的实体移出（detach）持久化上下文，内存占用不随记录数增长；
+     * 仅移出游标新加载的实体：查询前已在持久化上下文中的实体（可能含未刷新的修改）保留，调用方在同一事务内加载或修改的其他实体不受影响
+     * （随结果关联加载、未级联DETACH的实体仍保留在上下文中）
+     * 需在事务内调用，且使用完毕必须关闭流（try-with-resources）；
+     * 返回的实体为只读，读取若干行后会被移出持久化上下文，不可用于修改或延迟加载
+     *
+     * @param resultClass
+     * @param fromEntityClass
+     * @param queryBuilder
+     * @param <R>
+     * @param <F>
+     * @return
+     */
+    public <R, F> Stream<R> queryStream(Class<R> resultClass, Class<F> fromEntityClass, QueryBuilder<R, F> queryBuilder) {
+        Set<Object> retainedEntities = managedEntities();
+        ScrollableResults scrollableResults = scroll(resultClass, fromEntityClass, queryBuilder);
+        Iterator<R> iterator = new Iterator<R>() {
+            private final List<Object> readItems = new ArrayList<>();
+            private Boolean hasNext = null;
+
+            @Override
+            public boolean hasNext() {
+                if (hasNext == null) {
+                    if (readItems.size() >= streamClearInterval) {
+                        detach(readItems, retainedEntities);
+                        readItems.clear();
+                    }
+                    hasNext = scrollableResults.next();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public R next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNext = null;
+                R item = (R) scrollableResults.get(0);
+                readItems.add(item);
+                return item;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(scrollableResults::close);
+    }
+
+    /**
+     * 自定义查询
+     * 基于游标分批读取全部记录，每批处理完成后将该批新加载的实体移出（detach）持久化上下文；
+     * 查询前已在持久化上下文中的实体保留，不影响上下文中的其他实体
+     * 需在事务内调用；批内实体为只读，批处理结束后即被移出持久化上下文
+     *
+     * @param resultClass
+     * @param fromEntityClass
+     * @param queryBuilder
+     * @param batchSize
+     * @param batchHandler
+     * @param <R>
+     * @param <F>
+     * @return 读取记录数
+     */
+    public <R, F> long queryCursor(Class<R> resultClass, Class<F> fromEntityClass, QueryBuilder<R, F> queryBuilder, int batchSize, Consumer<List<R>> batchHandler) {
+        long total = 0;
+        Set<Object> retainedEntities = managedEntities();
+        try (ScrollableResults scrollableResults = scroll(resultClass, fromEntityClass, queryBuilder)) {
+            List<R> batch = new ArrayList<>(batchSize);
+            while (scrollableResults.next()) {
+                batch.add((R) scrollableResults.get(0));
+                if (batch.size() >= batchSize) {
+                    total += batch.size();
+                    batchHandler.accept(batch);
+                    detach(batch, retainedEntities);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                total += batch.size();
+                batchHandler.accept(batch);
+                detach(batch, retainedEntities);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 当前持久化上下文中的实体（按引用），游标查询前记录，读取后不移出
+     *
+     * @return
+     */
+    private Set<Object> managedEntities() {
+        Set<Object> entities = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            SessionImplementor session = (SessionImplementor) getEntityManager().getDelegate();
+            if (!session.isClosed()) {
+                for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+                    entities.add(entry.getKey());
+                }
+            }
+        } catch (Exception ex) {
+            log.debug("跟踪实体获取失败", ex);
+        }
+        return entities;
+    }
+
+    /**
+     * 将游标新加载的实体移出持久化上下文，查询前已跟踪的实体及非实体结果忽略
+     *
+     * @param items
+     * @param retainedEntities
+     */
+    private void detach(List<?> items, Set<Object> retainedEntities) {
+        EntityManager entityManager = getEntityManager();
+        for (Object item : items) {
+            if (item == null || retainedEntities.contains(item)) {
+                continue;
+            }
+            try {
+                if (entityManager.contains(item)) {
+                    entityManager.detach(item);
+                }
+            } catch (IllegalArgumentException ex) {
+                // 非实体（投影、标量）无需移出
+            }
+        }
+    }
+
+    protected <R, F> ScrollableResults scroll(Class<R> resultClass, Class<F> fromEntityClass, QueryBuilder<R, F> queryBuilder) {
+        CriteriaBuilder criteriaBuilder = getEntityManager().getCriteriaBuilder();
+        CriteriaQuery<R> criteriaQuery = criteriaBuilder.createQuery(resultClass);
+        Root<F> root = criteriaQuery.from(fromEntityClass);
+        queryBuilder.build(criteriaBuilder, criteriaQuery, root);
+        return getEntityManager().createQuery(criteriaQuery)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(streamFetchSize)
+                .setReadOnly(true)
+                .setCacheable(false)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
 
     /**
      * 事务执行句柄
@@ -369,11 +688,20 @@ public class JpaUnitOfWork implements UnitOfWork {
         return result;
     }
 
+    @Value("${ddd.domain.JpaUnitOfWork.dirtyCheck:false}")
+    private boolean dirtyCheck = false;
+
     protected List<Object> persistenceContextEntities() {
         try {
-            if (!((SessionImplementor) getEntityManager().getDelegate()).isClosed()) {
-                org.hibernate.engine.spi.PersistenceContext persistenceContext = ((SessionImplementor) getEntityManager().getDelegate()).getPersistenceContext();
-                Stream<Object> entitiesInPersistenceContext = Arrays.stream(persistenceContext.reentrantSafeEntityEntries()).map(e -> e.getKey());
+            SessionImplementor session = (SessionImplementor) getEntityManager().getDelegate();
+            if (!session.isClosed()) {
+                org.hibernate.engine.spi.PersistenceContext persistenceContext = session.getPersistenceContext();
+                Stream<Map.Entry<Object, EntityEntry>> entityEntries = Arrays.stream(persistenceContext.reentrantSafeEntityEntries());
+                if (dirtyCheck) {
+                    // 仅保留实际发生变更的跟踪实体，未变更实体不参与规格校验及持久化监听
+                    entityEntries = entityEntries.filter(e -> isEntityDirty(session, e.getKey(), e.getValue()));
+                }
+                Stream<Object> entitiesInPersistenceContext = entityEntries.map(e -> e.getKey());
                 return entitiesInPersistenceContext.collect(Collectors.toList());
             }
         } catch (Exception ex) {
@@ -382,6 +710,47 @@ public class JpaUnitOfWork implements UnitOfWork {
         return Collections.emptyList();
     }
 
+    /**
+     * 判断跟踪实体是否存在未持久化的变更
+     * 基于Hibernate加载快照比对（或字节码增强的脏属性跟踪），集合属性的增删元素及替换同样视为变更
+     *
+     * @param session
+     * @param entity
+     * @param entityEntry
+     * @return
+     */
+    protected boolean isEntityDirty(SessionImplementor session, Object entity, EntityEntry entityEntry) {
+        if (Status.READ_ONLY.equals(entityEntry.getStatus())) {
+            return false;
+        }
+        if (!Status.MANAGED.equals(entityEntry.getStatus()) || entityEntry.getLoadedState() == null) {
+            return true;
+        }
+        EntityPersister persister = entityEntry.getPersister();
+        boolean selfDirtinessTracked = entity instanceof SelfDirtinessTracker;
+        if (selfDirtinessTracked && ((SelfDirtinessTracker) entity).$$_hibernate_hasDirtyAttributes()) {
+            return true;
+        }
+        Object[] currentState = persister.getPropertyValues(entity);
+        if (!selfDirtinessTracked) {
+            int[] dirtyProperties = persister.findDirty(currentState, entityEntry.getLoadedState(), entity, session);
+            if (dirtyProperties != null && dirtyProperties.length > 0) {
+                return true;
+            }
+        }
+        Type[] propertyTypes = persister.getPropertyTypes();
+        for (int i = 0; i < currentState.length; i++) {
+            if (!propertyTypes[i].isCollectionType() || currentState[i] == null) {
+                continue;
+            }
+            if (!(currentState[i] instanceof PersistentCollection)
+                    || ((PersistentCollection) currentState[i]).isDirty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 校验持久化实体
      * @param entities
@@ -481,6 +850,19 @@ public class JpaUnitOfWork implements UnitOfWork {
     @Value(CONFIG_KEY_4_SVC_NAME)
     private String svcName = null;
 
+    /**
+     * 事件中继模式
+     * 持久化事件以初始状态落库，提交后不直接发送，由事件调度服务的中继循环认领发送
+     */
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_ENABLE)
+    private boolean relayEnable = false;
+
+    /**
+     * 提交前触发的领域事件是否等待独立订阅者完成
+     */
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_FANOUT_AWAIT)
+    private boolean fanoutAwait = true;
+
     protected void publishTransactionEvent() {
         List<Object> eventPayloads = domainEventSupervisor.getEvents();
         List<Object> persistedEvents = new ArrayList<>(eventPayloads.size());
@@ -488,28 +870,26 @@ public class JpaUnitOfWork implements UnitOfWork {
         for (Object eventPayload : eventPayloads) {
             EventRecord event = eventRecordRepository.create();
             event.init(eventPayload, this.svcName, LocalDateTime.now(), Duration.ofMinutes(15), 13);
-            event.beginDelivery(LocalDateTime.now());
             if (!isDomainEventPersist(eventPayload)) {
+                event.beginDelivery(LocalDateTime.now());
                 transientEvents.add(event);
             } else {
-                eventRecordRepository.save(event);
+                if (!relayEnable) {
+                    event.beginDelivery(LocalDateTime.now());
+                }
                 persistedEvents.add(event);
             }
         }
+        if (!persistedEvents.isEmpty()) {
+            eventRecordRepository.saveAll((List) persistedEvents);
+        }
         domainEventSupervisor.reset();
         applicationEventPublisher.publishEvent(new TransactionCommitingEvent(this, transientEvents));
         applicationEventPublisher.publishEvent(new TransactionCommittedEvent(this, persistedEvents));
     }
 
     public boolean isDomainEventPersist(Object payload) {
-        DomainEvent domainEvent = payload == null
-                ? null
-                : payload.getClass().getAnnotation(DomainEvent.class);
-        if (domainEvent != null) {
-            return domainEvent.persist();
-        } else {
-            return false;
-        }
+        return payload != null && DomainEventMetadata.of(payload).isPersist();
     }
 
     @TransactionalEventListener(fallbackExecution = true, classes = EntityPersisttedEvent.class)
@@ -530,11 +910,13 @@ public class JpaUnitOfWork implements UnitOfWork {
 
     @TransactionalEventListener(fallbackExecution = true, classes = TransactionCommittedEvent.class)
     public void onTransactionCommitted(TransactionCommittedEvent transactionCommittedEvent) {
+        if (relayEnable) {
+            // 中继模式下由事件调度服务认领发送
+            return;
+        }
         List<Object> events = transactionCommittedEvent.getEvents();
         if (events != null && !events.isEmpty()) {
-            events.forEach(event -> {
-                domainEventPublisher.publish(event);
-            });
+            domainEventPublisher.publishAll(events);
         }
     }
 
@@ -543,7 +925,7 @@ public class JpaUnitOfWork implements UnitOfWork {
         List<Object> events = transactionCommitingEvent.getEvents();
         if (events != null && !events.isEmpty()) {
             events.forEach(event -> {
-                domainEventSubscriberManager.trigger(event);
+                domainEventSubscriberManager.trigger(event, fanoutAwait);
             });
         }
     }
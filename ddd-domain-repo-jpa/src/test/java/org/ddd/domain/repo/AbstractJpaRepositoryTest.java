@@ -0,0 +1,100 @@
+package org.ddd.domain.repo;
+
+import junit.framework.TestCase;
+import org.ddd.share.CountMode;
+import org.ddd.share.DomainException;
+import org.ddd.share.PageParam;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class AbstractJpaRepositoryTest extends TestCase {
+
+    public void testExactCountWithoutLimit() {
+        CountingRepository repository = new CountingRepository();
+
+        assertEquals(Long.valueOf(100L), repository.countBy(null, CountMode.EXACT, null));
+        assertEquals("exact", repository.calls.get(0));
+    }
+
+    public void testExactCountWithLimit() {
+        CountingRepository repository = new CountingRepository();
+
+        assertEquals(Long.valueOf(50L), repository.countBy(null, CountMode.EXACT, 50L));
+        assertEquals("limited:50", repository.calls.get(0));
+    }
+
+    public void testEstimatedCount() {
+        CountingRepository repository = new CountingRepository();
+
+        assertEquals(Long.valueOf(90L), repository.countBy(null, CountMode.ESTIMATE, 50L));
+        assertEquals("estimated", repository.calls.get(0));
+    }
+
+    public void testNoCount() {
+        CountingRepository repository = new CountingRepository();
+
+        assertNull(repository.countBy(null, CountMode.NONE, null));
+        assertNull(repository.countBy(null, CountMode.HAS_NEXT, 50L));
+        assertTrue(repository.calls.isEmpty());
+    }
+
+    public void testZeroLimitRejected() {
+        CountingRepository repository = new CountingRepository();
+        PageParam pageParam = new PageParam();
+        pageParam.setPageNum(1);
+        pageParam.setPageSize(10);
+        pageParam.setCountLimit(0L);
+
+        try {
+            repository.pageBy(null, pageParam);
+            fail();
+        } catch (DomainException e) {
+            assertTrue(repository.calls.isEmpty());
+        }
+    }
+
+    static class CountingRepository extends AbstractJpaRepository<Object, Long> {
+        final List<String> calls;
+
+        CountingRepository() {
+            this(new ArrayList<>());
+        }
+
+        private CountingRepository(List<String> calls) {
+            super(specificationExecutor(calls), (JpaRepository<Object, Long>) null);
+            this.calls = calls;
+        }
+
+        private static JpaSpecificationExecutor<Object> specificationExecutor(List<String> calls) {
+            return (JpaSpecificationExecutor<Object>) Proxy.newProxyInstance(AbstractJpaRepositoryTest.class.getClassLoader(),
+                    new Class[]{JpaSpecificationExecutor.class}, (p, method, args) -> {
+                        if ("count".equals(method.getName())) {
+                            calls.add("exact");
+                            return 100L;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        protected Long countLimited(Specification<Object> specification, long countLimit) {
+            calls.add("limited:" + countLimit);
+            return countLimit;
+        }
+
+        @Override
+        protected long countEstimated(Specification<Object> specification) {
+            calls.add("estimated");
+            return 90L;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.ddd.domain.repo;
+
+import junit.framework.TestCase;
+import org.hibernate.query.ParameterMetadata;
+import org.hibernate.query.Query;
+import org.hibernate.query.QueryParameter;
+
+import javax.persistence.TypedQuery;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaCountEstimateCacheTest extends TestCase {
+
+    public void testCountCachedPerQueryAndParameters() {
+        JpaCountEstimateCache cache = new JpaCountEstimateCache(60000L, 100);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(10L, cache.count(countQuery("select count(o) from Order o where o.status = :status", "status", "PAID", 10L, executions)));
+        assertEquals(10L, cache.count(countQuery("select count(o) from Order o where o.status = :status", "status", "PAID", 99L, executions)));
+        assertEquals(1, executions.get());
+
+        assertEquals(3L, cache.count(countQuery("select count(o) from Order o where o.status = :status", "status", "NEW", 3L, executions)));
+        assertEquals(5L, cache.count(countQuery("select count(o) from Order o", null, null, 5L, executions)));
+        assertEquals(3, executions.get());
+    }
+
+    public void testExpiredCountReexecuted() {
+        JpaCountEstimateCache cache = new JpaCountEstimateCache(0L, 100);
+        AtomicInteger executions = new AtomicInteger();
+
+        cache.count(countQuery("select count(o) from Order o", null, null, 1L, executions));
+        assertEquals(2L, cache.count(countQuery("select count(o) from Order o", null, null, 2L, executions)));
+        assertEquals(2, executions.get());
+    }
+
+    public void testFullCacheEvicted() {
+        JpaCountEstimateCache cache = new JpaCountEstimateCache(60000L, 2);
+        AtomicInteger executions = new AtomicInteger();
+
+        cache.count(countQuery("q1", null, null, 1L, executions));
+        cache.count(countQuery("q2", null, null, 2L, executions));
+        cache.count(countQuery("q3", null, null, 3L, executions));
+        cache.count(countQuery("q1", null, null, 1L, executions));
+
+        assertEquals(4, executions.get());
+    }
+
+    private static TypedQuery<Long> countQuery(String queryString, String parameterName, Object parameterValue, long count, AtomicInteger executions) {
+        Set<QueryParameter<?>> parameters = new LinkedHashSet<>();
+        Map<QueryParameter<?>, Object> values = new HashMap<>();
+        if (parameterName != null) {
+            QueryParameter<?> parameter = proxy(QueryParameter.class, Collections.singletonMap("getName", parameterName));
+            parameters.add(parameter);
+            values.put(parameter, parameterValue);
+        }
+        ParameterMetadata parameterMetadata = proxy(ParameterMetadata.class, Collections.singletonMap("collectAllParameters", parameters));
+        return (TypedQuery<Long>) Proxy.newProxyInstance(JpaCountEstimateCacheTest.class.getClassLoader(), new Class[]{Query.class}, (p, method, args) -> {
+            switch (method.getName()) {
+                case "unwrap":
+                    return p;
+                case "getQueryString":
+                    return queryString;
+                case "getParameterMetadata":
+                    return parameterMetadata;
+                case "getParameterValue":
+                    return values.get(args[0]);
+                case "getSingleResult":
+                    executions.incrementAndGet();
+                    return count;
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "equals":
+                    return p == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(JpaCountEstimateCacheTest.class.getClassLoader(), new Class[]{type}, (p, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "equals":
+                    return p == args[0];
+                default:
+                    return results.get(method.getName());
+            }
+        });
+    }
+}
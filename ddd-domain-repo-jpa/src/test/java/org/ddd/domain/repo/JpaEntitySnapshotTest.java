@@ -0,0 +1,76 @@
+package org.ddd.domain.repo;
+
+import junit.framework.TestCase;
+
+import javax.persistence.Entity;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaEntitySnapshotTest extends TestCase {
+
+    public void testSetsFilledAfterElementsCopied() {
+        Parent parent = new Parent();
+        parent.id = 1L;
+        Child child = new Child();
+        child.parent = parent;
+        child.id = 2L;
+        parent.children.add(child);
+        parent.sortedChildren.add(child);
+
+        // 从子实体开始复制，回到父实体集合时子实体副本尚未复制完成
+        Child snapshot = JpaEntitySnapshot.of(child);
+
+        assertNotSame(child, snapshot);
+        assertEquals(Long.valueOf(2L), snapshot.id);
+        assertNotSame(parent, snapshot.parent);
+        assertSame(snapshot.parent, snapshot.parent.children.iterator().next().parent);
+        assertTrue(snapshot.parent.children.contains(snapshot));
+        assertTrue(snapshot.parent.sortedChildren.contains(snapshot));
+        assertSame(snapshot, snapshot.parent.sortedChildren.first());
+    }
+
+    public void testNonEntityValuesShared() {
+        Parent parent = new Parent();
+        parent.id = 1L;
+
+        Parent snapshot = JpaEntitySnapshot.of(parent);
+
+        assertSame(parent.id, snapshot.id);
+        assertNotSame(parent.children, snapshot.children);
+        assertTrue(snapshot.children.isEmpty());
+    }
+
+    @Entity
+    static class Parent {
+        Long id;
+        Set<Child> children = new LinkedHashSet<>();
+        TreeSet<Child> sortedChildren = new TreeSet<>();
+    }
+
+    @Entity
+    static class Child implements Comparable<Child> {
+        Parent parent;
+        Long id;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Child && Objects.equals(id, ((Child) o).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(id);
+        }
+
+        @Override
+        public int compareTo(Child o) {
+            return Long.compare(id, o.id);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.ddd.domain.repo;
+
+import junit.framework.TestCase;
+import org.ddd.share.DomainException;
+import org.ddd.share.ListOrder;
+import org.ddd.share.PageData;
+import org.ddd.share.PageParam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author agent
+ * @date 2026/10/18
+ */
+public class JpaKeysetPageUtilsTest extends TestCase {
+
+    public void testResolveOrdersAppendsId() {
+        List<ListOrder> orders = JpaKeysetPageUtils.resolveOrders(Collections.singletonList(order("name", true)), "id");
+
+        assertEquals(2, orders.size());
+        assertEquals("name", orders.get(0).getField());
+        assertEquals("id", orders.get(1).getField());
+        assertEquals(Boolean.FALSE, orders.get(1).getDesc());
+    }
+
+    public void testResolveOrdersKeepsExplicitId() {
+        List<ListOrder> orders = JpaKeysetPageUtils.resolveOrders(Arrays.asList(order("name", false), order("id", true)), "id");
+
+        assertEquals(2, orders.size());
+        assertEquals(Boolean.TRUE, orders.get(1).getDesc());
+        assertEquals(1, JpaKeysetPageUtils.resolveOrders(null, "id").size());
+    }
+
+    public void testCursorRoundTrip() {
+        List<ListOrder> orders = Arrays.asList(order("name", false), order("id", false));
+        Row row = new Row(42L, "a+b/c");
+
+        String cursor = JpaKeysetPageUtils.encodeCursor(row, orders);
+
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+        assertEquals(Arrays.asList("\"a+b/c\"", "42"), JpaKeysetPageUtils.decodeCursor(cursor));
+    }
+
+    public void testEncodeCursorRejectsNullSortValue() {
+        try {
+            JpaKeysetPageUtils.encodeCursor(new Row(1L, null), Collections.singletonList(order("name", false)));
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+    }
+
+    public void testInvalidCursorRejected() {
+        try {
+            JpaKeysetPageUtils.decodeCursor("not a cursor");
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+    }
+
+    public void testCursorMismatchingOrdersRejected() {
+        String cursor = JpaKeysetPageUtils.encodeCursor(new Row(1L, "a"), Collections.singletonList(order("id", false)));
+        try {
+            JpaKeysetPageUtils.seekPredicate(null, null, Arrays.asList(order("name", false), order("id", false)), cursor);
+            fail();
+        } catch (DomainException ex) {
+            // expected
+        }
+        assertNull(JpaKeysetPageUtils.seekPredicate(null, null, Collections.singletonList(order("id", false)), ""));
+    }
+
+    public void testToPageDataTrimsLookaheadRow() {
+        PageParam pageParam = new PageParam();
+        pageParam.setPageSize(2);
+        List<ListOrder> orders = Collections.singletonList(order("id", false));
+        List<Row> rows = new ArrayList<>(Arrays.asList(new Row(1L, "a"), new Row(2L, "b"), new Row(3L, "c")));
+
+        PageData<Row> page = JpaKeysetPageUtils.toPageData(pageParam, rows, orders, null);
+
+        assertEquals(2, page.getList().size());
+        assertTrue(page.getHasNext());
+        assertEquals(Collections.singletonList("2"), JpaKeysetPageUtils.decodeCursor(page.getNextCursor()));
+
+        PageData<Row> last = JpaKeysetPageUtils.toPageData(pageParam, rows.subList(0, 2), orders, 2L);
+        assertNull(last.getNextCursor());
+        assertFalse(last.getHasNext());
+        assertEquals(Long.valueOf(2L), last.getTotalCount());
+    }
+
+    private static ListOrder order(String field, boolean desc) {
+        ListOrder order = new ListOrder();
+        order.setField(field);
+        order.setDesc(desc);
+        return order;
+    }
+
+    static class Row {
+        private Long id;
+        private String name;
+
+        Row(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -1,20 +1,12 @@
 package org.ddd.example.adapter.domain;
 
-import org.hibernate.HibernateException;
-import org.hibernate.engine.spi.SharedSessionContractImplementor;
-import org.hibernate.id.IdentifierGenerator;
-
-import java.io.Serializable;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import org.ddd.domain.repo.SnowflakeIdentifierGenerator;
 
 /**
+ * 基于Snowflake的主键生成器，主键在内存中分配，支持同一秒内多次插入及JDBC批量插入
+ *
  * @author qiaohe
  * @date 2024/4/14
  */
-public class MyIdGeneratorConfig implements IdentifierGenerator {
-    @Override
-    public Serializable generate(SharedSessionContractImplementor sharedSessionContractImplementor, Object o) throws HibernateException {
-        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
-    }
+public class MyIdGeneratorConfig extends SnowflakeIdentifierGenerator {
 }
@@ -0,0 +1,72 @@
+package org.ddd.application.distributed;
+
+import lombok.RequiredArgsConstructor;
+import org.ddd.domain.event.persistence.EventIdentifierGenerator;
+import org.ddd.domain.repo.SnowflakeIdentifierGenerator;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.spi.IdentifierGeneratorStrategyProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.ddd.share.Constants.CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_LEASESECONDS;
+import static org.ddd.share.Constants.CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_WORKERID;
+
+/**
+ * Snowflake ID生成器自动配置
+ * 需显式开启 ddd.distributed.idgenerator.snowflake.enable=true
+ *
+ * @author agent
+ * @date 2026/10/18
+ */
+@Configuration
+@ConditionalOnProperty(name = "ddd.distributed.idgenerator.snowflake.enable", havingValue = "true")
+@RequiredArgsConstructor
+public class SnowflakeIdGeneratorAutoConfiguration {
+    private final Locker locker;
+
+    @Value(CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_WORKERID)
+    private long workerId;
+    @Value(CONFIG_KEY_4_DISTRIBUTED_IDGENERATOR_SNOWFLAKE_LEASESECONDS)
+    private int leaseSeconds;
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public SnowflakeWorkerIdDispatcher snowflakeWorkerIdDispatcher() {
+        SnowflakeWorkerIdDispatcher snowflakeWorkerIdDispatcher = new SnowflakeWorkerIdDispatcher(locker, Duration.ofSeconds(leaseSeconds));
+        return snowflakeWorkerIdDispatcher;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SnowflakeIdGenerator snowflakeIdGenerator(SnowflakeWorkerIdDispatcher snowflakeWorkerIdDispatcher) {
+        SnowflakeIdGenerator snowflakeIdGenerator = null;
+        if (workerId >= 0) {
+            // 显式配置workerId
+            snowflakeIdGenerator = new SnowflakeIdGenerator(workerId);
+        } else {
+            snowflakeIdGenerator = new SnowflakeIdGenerator(snowflakeWorkerIdDispatcher.acquire());
+            snowflakeWorkerIdDispatcher.keepAlive(snowflakeIdGenerator);
+        }
+        SnowflakeIdentifierGenerator.configure(snowflakeIdGenerator);
+        return snowflakeIdGenerator;
+    }
+
+    /**
+     * 事件主键改由Snowflake于内存中分配，事件插入可JDBC批量执行
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = "snowflakeEventIdentifierGeneratorCustomizer")
+    public HibernatePropertiesCustomizer snowflakeEventIdentifierGeneratorCustomizer() {
+        IdentifierGeneratorStrategyProvider provider = () -> Collections.singletonMap(EventIdentifierGenerator.STRATEGY, SnowflakeIdentifierGenerator.class);
+        return hibernateProperties -> hibernateProperties.putIfAbsent(AvailableSettings.IDENTIFIER_GENERATOR_STRATEGY_PROVIDER, provider);
+    }
+}
@@ -1,23 +1,34 @@
 package org.ddd.domain.event;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
 import org.ddd.application.distributed.Locker;
 import org.ddd.domain.event.persistence.ArchivedEventJpaRepository;
 import org.ddd.domain.event.persistence.EventRepository;
+import org.ddd.domain.repo.JpaUnitOfWork;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.ddd.share.Constants.*;
@@ -29,6 +40,7 @@ import static org.ddd.share.Constants.*;
 @Configuration
 @ConditionalOnProperty(name = "rocketmq.name-server")
 @RequiredArgsConstructor
+@Slf4j
 @EnableJpaRepositories(basePackages = {"org.ddd.domain.event.persistence"})
 @EntityScan(basePackages = {"org.ddd.domain.event.persistence"})
 @EnableScheduling
@@ -40,6 +52,7 @@ public class RocketMqEventAutoConfiguration {
     private final ApplicationEventPublisher applicationEventPublisher;
     private final List<RocketMqDomainEventSubscriber> subscribers;
     private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<DomainEventIdempotencyStore> idempotencyStoreProvider;
 
     @Bean
     @ConditionalOnMissingBean(EventRecordRepository.class)
@@ -48,6 +61,19 @@ public class RocketMqEventAutoConfiguration {
         return eventRecordRepository;
     }
 
+    /**
+     * 事件体编解码器注册，与事件仓储是否由应用自定义无关
+     */
+    @Configuration
+    private static class EventPayloadCodecLoader {
+        public EventPayloadCodecLoader(ObjectProvider<EventPayloadCodec> payloadCodecs,
+                                       @Value(CONFIG_KEY_4_DOMAIN_EVENT_PAYLOAD_CODEC) String payloadCodec,
+                                       @Value(CONFIG_KEY_4_DOMAIN_EVENT_PAYLOAD_COMPRESSTHRESHOLD) int payloadCompressThreshold) {
+            payloadCodecs.orderedStream().forEach(EventPayloadCodecs::register);
+            EventPayloadCodecs.configure(payloadCodec, payloadCompressThreshold);
+        }
+    }
+
     @Bean
     public RocketMqDomainEventSubscriberManager rocketMqDomainEventSubscriberManager() {
         RocketMqDomainEventSubscriberManager domainEventSubscriberManager = new RocketMqDomainEventSubscriberManager(subscribers, applicationEventPublisher);
@@ -73,13 +99,52 @@ public class RocketMqEventAutoConfiguration {
     }
 
     @Bean
-    public JpaEventScheduleService eventScheduleService(DomainEventPublisher domainEventPublisher) {
-        scheduleService = new JpaEventScheduleService(locker, domainEventPublisher, eventRepository, archivedEventJpaRepository, jdbcTemplate);
-        scheduleService.addPartition();
+    public JpaEventScheduleService eventScheduleService(DomainEventPublisher domainEventPublisher, PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory) {
+        scheduleService = new JpaEventScheduleService(locker, domainEventPublisher, eventRepository, archivedEventJpaRepository, transactionManager, jdbcTemplate);
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        if (!dialect.supportsSkipLocked()) {
+            log.warn("数据库方言{}不支持SKIP LOCKED，事件补偿认领退化为持有补偿锁串行认领，建议使用MySQL8Dialect", dialect.getClass().getName());
+            scheduleService.setClaimLockRequired(true);
+        }
         return scheduleService;
     }
 
     private JpaEventScheduleService scheduleService = null;
+
+    @Bean
+    @ConditionalOnProperty(name = "ddd.domain.event.schedule.relay.enable", havingValue = "true")
+    public JpaEventRelayLifecycle jpaEventRelayLifecycle(JpaEventScheduleService eventScheduleService) {
+        JpaEventRelayLifecycle relayLifecycle = new JpaEventRelayLifecycle(eventScheduleService, batchSize, maxConcurrency,
+                Duration.ofSeconds(maxLockSeconds), Duration.ofMillis(relayMinIdleMillis), Duration.ofMillis(relayMaxIdleMillis));
+        return relayLifecycle;
+    }
+
+    @Bean
+    public JpaEventPartitionManager jpaEventPartitionManager() {
+        partitionManager = new JpaEventPartitionManager(jdbcTemplate);
+        return partitionManager;
+    }
+
+    private JpaEventPartitionManager partitionManager = null;
+
+    @Bean
+    @ConditionalOnMissingBean(DomainEventIdempotencyStore.class)
+    @ConditionalOnProperty(name = "ddd.domain.event.subscriber.idempotent.enable", havingValue = "true")
+    public JdbcDomainEventIdempotencyStore jdbcDomainEventIdempotencyStore() {
+        JdbcDomainEventIdempotencyStore idempotencyStore = new JdbcDomainEventIdempotencyStore(jdbcTemplate);
+        return idempotencyStore;
+    }
+
+    @Value(CONFIG_KEY_4_DOMAIN_EVENT_SUB_IDEMPOTENT_RETENTIONDAYS)
+    private int idempotentRetentionDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (partitionManager == null || !partitionManager.isEnable()) return;
+        partitionManager.maintain();
+        partitionManager.verifyRelayPlan();
+    }
+
     @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_BATCHSIZE)
     private int batchSize;
     @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_MAXCONCURRENT)
@@ -89,9 +154,22 @@ public class RocketMqEventAutoConfiguration {
     @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_MAXLOCKSECONDS)
     private int maxLockSeconds;
 
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_MINIDLEMILLIS)
+    private long relayMinIdleMillis;
+    @Value(CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_RELAY_MAXIDLEMILLIS)
+    private long relayMaxIdleMillis;
+
+    @TransactionalEventListener(fallbackExecution = true, classes = JpaUnitOfWork.TransactionCommittedEvent.class)
+    public void onTransactionCommitted(JpaUnitOfWork.TransactionCommittedEvent transactionCommittedEvent) {
+        if (scheduleService == null || !scheduleService.isRelayRunning()) return;
+        if (transactionCommittedEvent.getEvents() != null && !transactionCommittedEvent.getEvents().isEmpty()) {
+            scheduleService.wakeup();
+        }
+    }
+
     @Scheduled(cron = CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_CRON)
     public void compensation() {
-        if (scheduleService == null) return;
+        if (scheduleService == null || scheduleService.isRelayRunning()) return;
         scheduleService.compense(batchSize, maxConcurrency, Duration.ofSeconds(intervalSeconds), Duration.ofSeconds(maxLockSeconds));
     }
 
@@ -105,11 +183,16 @@ public class RocketMqEventAutoConfiguration {
     public void archive() {
         if (scheduleService == null) return;
         scheduleService.archive(archiveExpireDays, archiveBatchSize, Duration.ofSeconds(archiveMaxLockSeconds));
+        DomainEventIdempotencyStore idempotencyStore = idempotencyStoreProvider.getIfAvailable();
+        if (idempotencyStore != null && idempotentRetentionDays > 0) {
+            idempotencyStore.purge(LocalDateTime.now().minusDays(idempotentRetentionDays));
+        }
     }
 
     @Scheduled(cron = CONFIG_KEY_4_DISTRIBUTED_EVENT_SCHEDULE_ADDPARTITION_CRON)
     public void addTablePartition(){
-        scheduleService.addPartition();
+        if (partitionManager == null) return;
+        partitionManager.maintain();
     }
 
 }
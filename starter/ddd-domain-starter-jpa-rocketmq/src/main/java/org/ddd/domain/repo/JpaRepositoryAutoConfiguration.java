@@ -7,13 +7,17 @@ import org.ddd.domain.event.DomainEventSubscriberManager;
 import org.ddd.domain.event.DomainEventSupervisor;
 import org.ddd.domain.event.EventRecordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.List;
 
+import static org.ddd.share.Constants.CONFIG_KEY_4_DOMAIN_UNITOFWORK_CONTEXT_INHERITABLE;
+
 /**
  * @author qiaohe
  * @date 2023/9/10
@@ -29,8 +33,8 @@ public class JpaRepositoryAutoConfiguration {
     private final EventRecordRepository eventRecordRepository;
 
     @Bean
-    public JpaPersistListenerManager jpaPersistListenerManager(List<AbstractJpaPersistListener> persistListeners){
-        JpaPersistListenerManager persistListenerManager = new JpaPersistListenerManager(persistListeners);
+    public JpaPersistListenerManager jpaPersistListenerManager(List<AbstractJpaPersistListener> persistListeners, JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor){
+        JpaPersistListenerManager persistListenerManager = new JpaPersistListenerManager(persistListeners, jpaEntityIdentifierAccessor);
         return persistListenerManager;
     }
 
@@ -41,15 +45,29 @@ public class JpaRepositoryAutoConfiguration {
     }
 
     @Bean
-    public JpaUnitOfWork jpaUnitOfWork(JpaSpecificationManager jpaSpecificationManager, JpaPersistListenerManager jpaPersistListenerManager){
-        JpaUnitOfWork unitOfWork = new JpaUnitOfWork(applicationEventPublisher, domainEventSupervisor, domainEventPublisher, domainEventSubscriberManager, eventRecordRepository, jpaSpecificationManager, jpaPersistListenerManager);
+    public JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor(){
+        JpaEntityIdentifierAccessor entityIdentifierAccessor = new JpaEntityIdentifierAccessor();
+        return entityIdentifierAccessor;
+    }
+
+    @Bean
+    public JpaUnitOfWork jpaUnitOfWork(JpaSpecificationManager jpaSpecificationManager, JpaPersistListenerManager jpaPersistListenerManager, JpaEntityIdentifierAccessor jpaEntityIdentifierAccessor){
+        JpaUnitOfWork unitOfWork = new JpaUnitOfWork(applicationEventPublisher, domainEventSupervisor, domainEventPublisher, domainEventSubscriberManager, eventRecordRepository, jpaSpecificationManager, jpaPersistListenerManager, jpaEntityIdentifierAccessor);
         return unitOfWork;
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public UnitOfWorkContextHolder unitOfWorkContextHolder(@Value(CONFIG_KEY_4_DOMAIN_UNITOFWORK_CONTEXT_INHERITABLE) boolean inheritable){
+        UnitOfWorkContextHolder unitOfWorkContextHolder = new ThreadLocalUnitOfWorkContextHolder(inheritable);
+        return unitOfWorkContextHolder;
+    }
+
     @Configuration
     private static class JpaLoader {
-        public JpaLoader(@Autowired(required = false) JpaUnitOfWork jpaUnitOfWork){
+        public JpaLoader(@Autowired(required = false) JpaUnitOfWork jpaUnitOfWork, @Autowired(required = false) UnitOfWorkContextHolder unitOfWorkContextHolder){
             JpaUnitOfWork.instance = jpaUnitOfWork;
+            UnitOfWorkContext.setHolder(unitOfWorkContextHolder);
         }
     }
 }